@@ -0,0 +1,33 @@
+package searchengine.benchmark;
+
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import searchengine.config.MorphologyCacheConfig;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static String load(String name) {
+        try (InputStream input = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (input == null) throw new IllegalStateException("Fixture not found: " + name);
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static MorphologyCache morphology() {
+        try {
+            return new MorphologyCache(new RussianLuceneMorphology(), new MorphologyCacheConfig());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.services.indexing.impl.persistence.PendingBatch;
+import searchengine.services.indexing.impl.persistence.SiteBuffers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LemmaDeduplicationBenchmark {
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int LEMMAS_PER_PAGE = 200;
+
+    @Param({"100000", "1000000"})
+    public int bufferSize;
+
+    private Site site;
+    private Page[] pages;
+    private Map<String, Integer>[] pageLemmas;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUpPages() {
+        Random random = new Random(42);
+        site = Site.builder().id(1).url("https://site.ru").name("Site").build();
+
+        int pageCount = bufferSize / LEMMAS_PER_PAGE;
+        pages = new Page[pageCount];
+        pageLemmas = new Map[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = Page.builder().id(i + 1).siteId(site).path("/page" + i).build();
+            pageLemmas[i] = new HashMap<>();
+            while (pageLemmas[i].size() < LEMMAS_PER_PAGE) {
+                pageLemmas[i].put("лемма" + random.nextInt(VOCABULARY_SIZE), 1 + random.nextInt(5));
+            }
+        }
+    }
+
+    @Benchmark
+    public PendingBatch bufferAndDrain() {
+        SiteBuffers buffers = new SiteBuffers(site, 0);
+        for (int i = 0; i < pages.length; i++) {
+            buffers.addPostings(pages[i], pageLemmas[i]);
+        }
+        buffers.pagesWritten(Arrays.asList(pages), true);
+        return buffers.drainPending();
+    }
+}
@@ -0,0 +1,55 @@
+package searchengine.benchmark;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
+import searchengine.services.indexing.impl.morphology.WordForm;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LemmatizerBenchmark {
+    private static final Pattern WORD_PATTERN = Pattern.compile("[а-яА-ЯёЁ]+");
+
+    @Param({"1", "20"})
+    public int copies;
+
+    private MorphologyCache morphology;
+    private Lemmatizer<Document> lemmatizer;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        morphology = Fixtures.morphology();
+        lemmatizer = new Lemmatizer<>(morphology, Element::text);
+        document = Jsoup.parse(Fixtures.load("article.html").repeat(copies));
+    }
+
+    @Benchmark
+    public Map<String, Integer> createLemmaMap() {
+        return lemmatizer.createLemmaMap(document);
+    }
+
+    @Benchmark
+    public Map<String, Integer> regexLemmaMap() {
+        String text = document.text().replace('ё', 'е').replace('Ё', 'Е');
+        return WORD_PATTERN.matcher(text).results()
+                .map(match -> match.group().toLowerCase())
+                .map(morphology::normalize)
+                .filter(wordForm -> !wordForm.isServicePart())
+                .map(WordForm::getLemma)
+                .filter(lemma -> lemma.length() >= 3)
+                .collect(Collectors.toMap(lemma -> lemma, lemma -> 1, Integer::sum));
+    }
+}
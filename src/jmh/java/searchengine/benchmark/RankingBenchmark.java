@@ -0,0 +1,56 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.search.impl.engine.InvertedIndex;
+import searchengine.services.search.impl.engine.RankedPages;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+    private static final int VOCABULARY_SIZE = 2_000;
+    private static final int LEMMAS_PER_PAGE = 100;
+    private static final int RESULTS_PER_PAGE = 20;
+    private static final long SITE_ID = 1;
+
+    @Param({"5000", "50000"})
+    public int pages;
+
+    private InvertedIndex invertedIndex;
+    private List<String> rareLemmas;
+    private List<String> queryLemmas;
+
+    @Setup
+    public void setUp() {
+        invertedIndex = new InvertedIndex(null);
+        invertedIndex.clear();
+        Random random = new Random(42);
+
+        for (long pageId = 1; pageId <= pages; pageId++) {
+            Map<String, Integer> lemmaRanks = new HashMap<>();
+            while (lemmaRanks.size() < LEMMAS_PER_PAGE) {
+                int lemma = (int) (VOCABULARY_SIZE * Math.pow(random.nextDouble(), 3));
+                lemmaRanks.merge("лемма" + lemma, 1, Integer::sum);
+            }
+            invertedIndex.addPage(SITE_ID, pageId, lemmaRanks);
+        }
+
+        rareLemmas = List.of("лемма40", "лемма10", "лемма2");
+        queryLemmas = List.of("лемма2", "лемма10", "лемма40", "лемма0");
+    }
+
+    @Benchmark
+    public int[] rankTopPage() {
+        RankedPages rankedPages = invertedIndex.rankPages(rareLemmas, queryLemmas, SITE_ID);
+        return rankedPages.top(RESULTS_PER_PAGE);
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.benchmark;
+
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.search.impl.utils.SnippetService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnippetBenchmark {
+    private static final List<String> QUERY_LEMMAS = List.of("смартфон", "экран", "зарядка");
+
+    @Param({"1", "100", "1000"})
+    public int copies;
+
+    private SnippetService snippetService;
+    private String content;
+
+    @Setup
+    public void setUp() {
+        snippetService = new SnippetService(Fixtures.morphology());
+        content = Jsoup.parse(Fixtures.load("article.html")).text().repeat(copies);
+    }
+
+    @Benchmark
+    public String generateSnippet() {
+        return snippetService.generateSnippet(content, QUERY_LEMMAS);
+    }
+}
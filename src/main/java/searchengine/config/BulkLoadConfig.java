@@ -0,0 +1,23 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "bulk-load")
+public class BulkLoadConfig {
+    private Mode mode = Mode.BATCH;
+    private int parallelism = 4;
+    private int batchSize = 1000;
+    private int commitRows = 10_000;
+    private int idBlockSize = 1000;
+
+    public enum Mode {
+        BATCH,
+        LOAD_DATA
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "crawler")
+public class CrawlerConfig {
+    private Mode mode = Mode.FORK_JOIN;
+    private int maxConcurrentFetches = 256;
+    private int cpuThreads = Runtime.getRuntime().availableProcessors();
+    private int workersPerSite = Runtime.getRuntime().availableProcessors();
+    private long checkpointInterval = 300;
+    private int flushIndexRows = 20_000;
+    private String frontierDir = System.getProperty("java.io.tmpdir") + "/searchengine-frontier";
+    private int crawlDelay = 100;
+    private int maxCrawlDelay = 30_000;
+    private boolean adaptiveBackoff = true;
+    private int parseThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int persistThreads = 2;
+    private int stageQueueCapacity = 512;
+    private long pipelineReportInterval = 10;
+    private int indexPagesParallelism = 16;
+    private int indexPagesBatchSize = 50;
+
+    public enum Mode {
+        FORK_JOIN,
+        VIRTUAL_THREADS,
+        PIPELINE
+    }
+}
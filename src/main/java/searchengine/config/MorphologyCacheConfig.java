@@ -0,0 +1,21 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "morphology-cache")
+public class MorphologyCacheConfig {
+    private int capacity = 200_000;
+    private int segments = 16;
+    private Eviction eviction = Eviction.LRU;
+
+    public enum Eviction {
+        LRU,
+        FIFO
+    }
+}
@@ -0,0 +1,24 @@
+package searchengine.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Slf4j
+@Configuration
+public class MorphologyConfig {
+
+    @Bean
+    public LuceneMorphology russianMorphology() {
+        try {
+            return new RussianLuceneMorphology();
+        } catch (IOException e) {
+            log.error("Error loading the russian morphology dictionary: {}", String.valueOf(e));
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.model.content.ContentCodec;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "page-content")
+public class PageContentConfig {
+    private ContentCodec codec = ContentCodec.DEFLATE;
+}
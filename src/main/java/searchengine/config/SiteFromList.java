@@ -8,4 +8,5 @@ import lombok.Setter;
 public class SiteFromList {
     private String url;
     private String name;
+    private Integer crawlDelay;
 }
@@ -5,12 +5,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import searchengine.dto.indexing.IndexPagesJobStatus;
 import searchengine.dto.search.SearchResponse;
 import searchengine.dto.statistics.StatisticsResponse;
+import searchengine.services.indexing.IndexingMode;
 import searchengine.services.indexing.IndexingService;
 import searchengine.services.search.SearchService;
 import searchengine.services.statistics.StatisticsService;
 
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -29,9 +32,14 @@ public class ApiController {
     }
 
     @GetMapping("/startIndexing")
-    public ResponseEntity<Map<String, Object>> startIndexing() {
+    public ResponseEntity<Map<String, Object>> startIndexing(
+            @RequestParam(value="resume", required=false, defaultValue="false") boolean resume,
+            @RequestParam(value="incremental", required=false, defaultValue="false") boolean incremental) {
         log.info("The controller \"startIndexing\" calls the startIndexing service.");
-        boolean isIndexed = indexingService.startIndexing();
+        IndexingMode mode = resume ? IndexingMode.RESUME
+                : incremental ? IndexingMode.INCREMENTAL
+                : IndexingMode.FULL;
+        boolean isIndexed = indexingService.startIndexing(mode);
 
         return ResponseEntity.ok(isIndexed
                 ? Map.of("result", true)
@@ -65,6 +73,30 @@ public class ApiController {
         );
     }
 
+    @PostMapping("/indexPages")
+    public ResponseEntity<Map<String, Object>> indexPages(@RequestParam("url") List<String> urls) {
+        log.info("The controller \"indexPages\" calls the indexPages service for {} URLs.", urls.size());
+        String jobId = indexingService.indexPages(urls);
+
+        return ResponseEntity.ok(jobId != null
+                ? Map.of("result", true, "jobId", jobId)
+                : Map.of("result", false,
+                "error", "The list of pages is empty or the sites are being indexed.")
+        );
+    }
+
+    @GetMapping("/indexPages/{jobId}")
+    public ResponseEntity<?> indexPagesStatus(@PathVariable String jobId) {
+        IndexPagesJobStatus status = indexingService.getIndexPagesStatus(jobId);
+
+        if(status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("result", false, "error", "Unknown job: " + jobId));
+        }
+
+        return ResponseEntity.ok(status);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<?> search(@RequestParam(value="query", required=false) String query,
                                     @RequestParam(value="site", required=false) String site,
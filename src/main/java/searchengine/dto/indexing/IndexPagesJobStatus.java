@@ -0,0 +1,17 @@
+package searchengine.dto.indexing;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class IndexPagesJobStatus {
+    private String jobId;
+    private boolean finished;
+    private int total;
+    private int indexed;
+    private int failed;
+    private List<String> errors;
+}
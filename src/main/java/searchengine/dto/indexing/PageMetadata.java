@@ -0,0 +1,9 @@
+package searchengine.dto.indexing;
+
+public interface PageMetadata {
+    Long getId();
+    String getPath();
+    String getEtag();
+    String getLastModified();
+    String getContentHash();
+}
@@ -0,0 +1,6 @@
+package searchengine.dto.indexing;
+
+public interface StoredPageContent {
+    Long getId();
+    byte[] getContent();
+}
@@ -0,0 +1,6 @@
+package searchengine.dto.search;
+
+public interface PageRelevance {
+    Long getPageId();
+    Double getAbsRelevance();
+}
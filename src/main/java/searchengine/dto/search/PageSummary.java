@@ -0,0 +1,9 @@
+package searchengine.dto.search;
+
+public interface PageSummary {
+    Long getId();
+    Long getSiteId();
+    String getPath();
+    String getTitle();
+    String getPlainText();
+}
@@ -1,6 +1,8 @@
 package searchengine.model;
 
 import lombok.*;
+import searchengine.model.content.PageContent;
+import searchengine.model.content.PageContentConverter;
 
 import java.util.Objects;
 import javax.persistence.*;
@@ -31,10 +33,26 @@ public class Page {
     @Column(name = "code", nullable = false)
     private int code;
 
+    @Convert(converter = PageContentConverter.class)
     @Column(name = "content",
-            columnDefinition = "MEDIUMTEXT",
+            columnDefinition = "LONGBLOB",
             nullable = false)
-    private String content;
+    private PageContent content;
+
+    @Column(name = "title", columnDefinition = "TEXT")
+    private String title;
+
+    @Column(name = "plain_text", columnDefinition = "MEDIUMTEXT")
+    private String plainText;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "last_modified", length = 64)
+    private String lastModified;
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,69 @@
+package searchengine.model.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+public enum ContentCodec {
+    NONE((byte) 0) {
+        @Override
+        public byte[] encode(byte[] data) {
+            return data;
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            return data;
+        }
+    },
+    DEFLATE((byte) 1) {
+        @Override
+        public byte[] encode(byte[] data) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 4 + 64);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+            try (DeflaterOutputStream stream = new DeflaterOutputStream(output, deflater)) {
+                stream.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+            }
+            return output.toByteArray();
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            try (InflaterInputStream stream = new InflaterInputStream(new ByteArrayInputStream(data))) {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+
+    private final byte id;
+
+    ContentCodec(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public abstract byte[] encode(byte[] data);
+
+    public abstract byte[] decode(byte[] data);
+
+    public static ContentCodec byId(byte id) {
+        for (ContentCodec codec : values()) {
+            if (codec.id == id) return codec;
+        }
+        throw new IllegalArgumentException("Unknown page content codec: " + id);
+    }
+}
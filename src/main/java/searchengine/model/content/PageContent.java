@@ -0,0 +1,39 @@
+package searchengine.model.content;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class PageContent {
+    private static final byte HEADER_MARKER = 0x1F;
+    private static final int HEADER_LENGTH = 2;
+
+    private final byte[] encoded;
+
+    public PageContent(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    public static PageContent of(String html, ContentCodec codec) {
+        byte[] payload = codec.encode(html.getBytes(StandardCharsets.UTF_8));
+        byte[] encoded = new byte[payload.length + HEADER_LENGTH];
+        encoded[0] = HEADER_MARKER;
+        encoded[1] = codec.getId();
+        System.arraycopy(payload, 0, encoded, HEADER_LENGTH, payload.length);
+
+        return new PageContent(encoded);
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    public String getHtml() {
+        if (encoded.length < HEADER_LENGTH || encoded[0] != HEADER_MARKER) {
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        ContentCodec codec = ContentCodec.byId(encoded[1]);
+        byte[] payload = Arrays.copyOfRange(encoded, HEADER_LENGTH, encoded.length);
+        return new String(codec.decode(payload), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.model.content;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class PageContentConverter implements AttributeConverter<PageContent, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(PageContent content) {
+        return (content == null) ? null : content.getEncoded();
+    }
+
+    @Override
+    public PageContent convertToEntityAttribute(byte[] encoded) {
+        return (encoded == null) ? null : new PageContent(encoded);
+    }
+}
@@ -6,12 +6,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.dto.search.PageRelevance;
 import searchengine.model.Index;
-import searchengine.model.Lemma;
-import searchengine.model.Page;
-import searchengine.model.Site;
 
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 @Transactional
@@ -19,42 +18,31 @@ public interface IndexRepository extends JpaRepository<Index, Long> {
 
     @Modifying
     @Query(value = """
-        INSERT INTO `index` (page_id, lemma_id, `rank`)
-        VALUES (:pageId, :lemmaId, :rank)
+        DELETE i FROM `index` i JOIN page p ON p.id = i.page_id
+        WHERE p.site_id = :siteId AND p.id > :pageId
         """, nativeQuery = true)
-    void insertIndex(@Param("pageId") Page pageId,
-                             @Param("lemmaId") Lemma lemmaId,
-                             @Param("rank") float rank);
+    void deleteBySiteAndPageIdAfter(@Param("siteId") long siteId, @Param("pageId") long pageId);
 
-    void deleteByLemmaId(Lemma lemmaId);
-
-    @Query(
-            value = "SELECT page_id FROM `index` WHERE lemma_id = :lemmaId",
-            nativeQuery = true
-    )
-    Set<Long> getPageIdsByLemmaId(@Param("lemmaId") Long lemmaId);
-
-    @Query(
-            value = "SELECT `rank` FROM `index` WHERE page_id = :pageId AND lemma_id = :lemmaId",
-            nativeQuery = true
-    )
-    Float getRankByLemmaIdAndPageId(@Param("pageId") long pageId, @Param("lemmaId") long lemmaId);
-
-    @Query(
-            value = "SELECT page_id FROM `index` WHERE lemma_id = :lemmaId AND site_id = :siteId",
-            nativeQuery = true
-    )
-    Set<Long> getPageIdsByLemmaIdAndSiteId(@Param("lemmaId")long lemmaId, @Param("siteId")long siteId);
-
-    @Query(
-            value = "SELECT page_id FROM `index` WHERE lemma_id IN (:lemmaIds)",
-            nativeQuery = true
-    )
-    Set<Long> getPageIdsByLemmaIds(@Param("lemmaIds") Set<Long> lemmaIds);
+    @Query(value = """
+        SELECT i.page_id AS pageId, SUM(i.`rank`) AS absRelevance
+        FROM `index` i JOIN lemma l ON l.id = i.lemma_id
+        WHERE l.lemma IN (:queryLemmas) AND l.site_id = :siteId
+        GROUP BY i.page_id
+        HAVING COUNT(DISTINCT CASE WHEN l.lemma IN (:requiredLemmas) THEN l.lemma END) = :requiredCount
+        """, nativeQuery = true)
+    List<PageRelevance> getPageRelevanceOnSite(@Param("queryLemmas") Collection<String> queryLemmas,
+                                               @Param("requiredLemmas") Collection<String> requiredLemmas,
+                                               @Param("requiredCount") int requiredCount,
+                                               @Param("siteId") long siteId);
 
-    @Query(
-            value = "SELECT SUM(`rank`) FROM `index` WHERE page_id = :pageId AND lemma_id IN (:lemmaIds)",
-            nativeQuery = true
-    )
-    Float getTotalRankByPageIdAndLemmaIds(@Param("pageId") long pageId, @Param("lemmaIds") Set<Long> lemmaIds);
+    @Query(value = """
+        SELECT i.page_id AS pageId, SUM(i.`rank`) AS absRelevance
+        FROM `index` i JOIN lemma l ON l.id = i.lemma_id
+        WHERE l.lemma IN (:queryLemmas)
+        GROUP BY i.page_id
+        HAVING COUNT(DISTINCT CASE WHEN l.lemma IN (:requiredLemmas) THEN l.lemma END) = :requiredCount
+        """, nativeQuery = true)
+    List<PageRelevance> getPageRelevance(@Param("queryLemmas") Collection<String> queryLemmas,
+                                         @Param("requiredLemmas") Collection<String> requiredLemmas,
+                                         @Param("requiredCount") int requiredCount);
 }
@@ -1,16 +1,22 @@
 package searchengine.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import searchengine.dto.indexing.PageMetadata;
+import searchengine.dto.indexing.StoredPageContent;
+import searchengine.dto.search.PageSummary;
 import searchengine.model.Page;
 import searchengine.model.Site;
 
+import java.util.List;
+
 @Repository
 @Transactional
 public interface PageRepository extends JpaRepository<Page, Long> {
-    Page findByPath(String path);
     Integer countPageBySiteId(Site siteId);
 
     @Query(
@@ -26,4 +32,58 @@ public interface PageRepository extends JpaRepository<Page, Long> {
     Long countBySite(Long siteId);
 
     Page getPagesById(long id);
+
+    @Query(
+            value = "SELECT COALESCE(MAX(id), 0) FROM page WHERE site_id = :siteId",
+            nativeQuery = true
+    )
+    long findMaxIdBySite(@Param("siteId") long siteId);
+
+    @Query(
+            value = "SELECT id, path, etag, last_modified AS lastModified, content_hash AS contentHash " +
+                    "FROM page WHERE site_id = :siteId",
+            nativeQuery = true
+    )
+    List<PageMetadata> findMetadataBySite(@Param("siteId") long siteId);
+
+    @Modifying
+    @Query(
+            value = "UPDATE page SET etag = :etag, last_modified = :lastModified WHERE id = :id",
+            nativeQuery = true
+    )
+    void updateValidators(@Param("id") long id, @Param("etag") String etag,
+                          @Param("lastModified") String lastModified);
+
+    @Modifying
+    @Query(
+            value = "DELETE FROM page WHERE site_id = :siteId AND id > :pageId",
+            nativeQuery = true
+    )
+    void deleteBySiteAndIdAfter(@Param("siteId") long siteId, @Param("pageId") long pageId);
+
+    @Query(
+            value = "SELECT id, site_id AS siteId, path, title, plain_text AS plainText FROM page WHERE id = :id",
+            nativeQuery = true
+    )
+    PageSummary getPageSummaryById(@Param("id") long id);
+
+    @Query(
+            value = "SELECT id, content FROM page WHERE plain_text IS NULL AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true
+    )
+    List<StoredPageContent> findContentWithoutPlainText(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(
+            value = "UPDATE page SET title = :title, plain_text = :plainText WHERE id = :id",
+            nativeQuery = true
+    )
+    void updatePlainText(@Param("id") long id, @Param("title") String title, @Param("plainText") String plainText);
+
+    @Modifying
+    @Query(
+            value = "UPDATE page SET plain_text = '' WHERE id = :id AND plain_text IS NULL",
+            nativeQuery = true
+    )
+    void markPlainTextFailed(@Param("id") long id);
 }
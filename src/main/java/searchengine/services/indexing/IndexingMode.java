@@ -0,0 +1,7 @@
+package searchengine.services.indexing;
+
+public enum IndexingMode {
+    FULL,
+    RESUME,
+    INCREMENTAL
+}
@@ -1,7 +1,13 @@
 package searchengine.services.indexing;
 
+import searchengine.dto.indexing.IndexPagesJobStatus;
+
+import java.util.List;
+
 public interface IndexingService {
-    boolean startIndexing();
+    boolean startIndexing(IndexingMode mode);
     boolean stopIndexing();
     boolean indexPage(String path);
+    String indexPages(List<String> paths);
+    IndexPagesJobStatus getIndexPagesStatus(String jobId);
 }
@@ -2,19 +2,37 @@ package searchengine.services.indexing.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerConfig;
 import searchengine.config.SiteFromList;
 import searchengine.config.SitesListConfig;
 import searchengine.config.UserAgentAndRefererConfig;
+import searchengine.dto.indexing.IndexPagesJobStatus;
 import searchengine.model.Site;
 import searchengine.model.enums.Status;
+import searchengine.services.indexing.IndexingMode;
 import searchengine.services.indexing.IndexingService;
+import searchengine.services.indexing.impl.checkpoint.CrawlCheckpointer;
+import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
+import searchengine.services.indexing.impl.parser.BulkPageIndexing;
+import searchengine.services.indexing.impl.parser.CrawlExecutors;
+import searchengine.services.indexing.impl.parser.CrawlSession;
+import searchengine.services.indexing.impl.parser.ForkJoinCrawler;
+import searchengine.services.indexing.impl.parser.KnownPages;
+import searchengine.services.indexing.impl.parser.PageHandler;
+import searchengine.services.indexing.impl.parser.PolitenessScheduler;
 import searchengine.services.indexing.impl.parser.SinglePageIndexing;
-
-import searchengine.services.indexing.impl.parser.node.Node;
-import searchengine.services.indexing.impl.parser.PageCrawlerTask;
+import searchengine.services.indexing.impl.parser.VirtualThreadCrawler;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+import searchengine.services.indexing.impl.parser.pipeline.CrawlPipeline;
+import searchengine.services.indexing.impl.parser.pipeline.PipelineCrawler;
 import searchengine.services.indexing.impl.persistence.IndexingCoordinator;
 
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,64 +53,154 @@ public final class IndexingServiceImpl implements IndexingService {
     private final SitesListConfig sitesFromConfigFile;
     private final UserAgentAndRefererConfig config;
     private final IndexingCoordinator coordinator;
+    private final MorphologyCache morphology;
+    private final CrawlerConfig crawlerConfig;
+    private final PolitenessScheduler politeness;
+    private final CrawlCheckpointer checkpointer;
+    private final BulkPageIndexing bulkPageIndexing;
 
     private long measuringCodeExecutionTime;
     private ExecutorService siteExecutor;
+    private ExecutorService fetchExecutor;
+    private ExecutorService cpuExecutor;
+    private ScheduledExecutorService dispatchTimer;
+    private Semaphore fetchPermits;
+    private CrawlPipeline pipeline;
 
     @Override
-    public boolean startIndexing() {
-        if(remainingTasks.get() != 0 || waitExecutorShutdown.get()) return false;
-        initializeIndexing();
+    public boolean startIndexing(IndexingMode mode) {
+        if(remainingTasks.get() != 0 || waitExecutorShutdown.get() || bulkPageIndexing.isRunning()) return false;
+        initializeIndexing(mode);
 
         sitesFromConfigFile.getSites()
-                .forEach(siteFromList -> siteExecutor.submit(() -> startingAThreadPool(siteFromList)));
+                .forEach(siteFromList -> siteExecutor.submit(() -> startingAThreadPool(siteFromList, mode)));
         return true;
     }
 
-    private void initializeIndexing() {
+    private void initializeIndexing(IndexingMode mode) {
         int numberOfSitesForParsing = sitesFromConfigFile.getSites().size();
         measuringCodeExecutionTime = System.currentTimeMillis();
 
         remainingTasks.addAndGet(numberOfSitesForParsing + FINAL_TASKS);
         stopRequested.set(false);
-        PageCrawlerTask.clearAllLinks();
-        coordinator.clearAllBuffers();
-        coordinator.deleteDataAboutSites();
+        politeness.clear();
+        coordinator.releaseIdBlocks();
+        if (mode == IndexingMode.FULL) coordinator.deleteDataAboutSites();
+        if (mode != IndexingMode.RESUME) checkpointer.deleteAll();
+        checkpointer.start();
 
         siteExecutor = Executors.newFixedThreadPool(numberOfSitesForParsing);
+        dispatchTimer = Executors.newSingleThreadScheduledExecutor();
+        if (crawlerConfig.getMode() == CrawlerConfig.Mode.VIRTUAL_THREADS) {
+            fetchExecutor = CrawlExecutors.newVirtualThreadExecutor();
+            cpuExecutor = Executors.newFixedThreadPool(crawlerConfig.getCpuThreads());
+            fetchPermits = new Semaphore(crawlerConfig.getMaxConcurrentFetches());
+        } else if (crawlerConfig.getMode() == CrawlerConfig.Mode.PIPELINE) {
+            pipeline = new CrawlPipeline(crawlerConfig, CrawlExecutors.newVirtualThreadExecutor());
+        }
     }
 
-    private void startingAThreadPool(SiteFromList siteFromList) {
-        Site site = coordinator.getSiteFromListAndSave(siteFromList);
-        Node root = new Node(config, site, site.getUrl());
-        PageCrawlerTask task = new PageCrawlerTask(coordinator, stopRequested, root);
+    private void startingAThreadPool(SiteFromList siteFromList, IndexingMode mode) {
+        Site site = prepareSite(siteFromList, mode);
+        if (site == null) {
+            countingCompletedThreadPools();
+            return;
+        }
 
+        Lemmatizer<Document> lemmatizer = new Lemmatizer<>(morphology, Element::text);
+        politeness.register(site.getId(), siteFromList);
         siteIdsForEnding.add(site.getId());
-        commonPool.invoke(task);
+
+        UrlFrontier frontier = new UrlFrontier(Path.of(crawlerConfig.getFrontierDir()), site.getId());
+        KnownPages knownPages = (mode == IndexingMode.INCREMENTAL)
+                ? new KnownPages(coordinator.getPageMetadata(site.getId()))
+                : KnownPages.empty();
+        CrawlSession session = new CrawlSession(site, frontier, knownPages, crawlerConfig.getFlushIndexRows());
+        boolean completed = false;
+        try {
+            if (mode == IndexingMode.RESUME && checkpointer.hasCheckpoint(site.getId())) {
+                restoreCheckpoint(site, frontier);
+            }
+            checkpointer.register(session);
+            PageHandler handler = new PageHandler(coordinator, lemmatizer, config, politeness, session, stopRequested);
+
+            if (crawlerConfig.getMode() == CrawlerConfig.Mode.VIRTUAL_THREADS) {
+                new VirtualThreadCrawler(handler, fetchExecutor, cpuExecutor, dispatchTimer, fetchPermits).crawl();
+            } else if (crawlerConfig.getMode() == CrawlerConfig.Mode.PIPELINE) {
+                new PipelineCrawler(handler, pipeline, dispatchTimer, crawlerConfig.getWorkersPerSite()).crawl();
+            } else {
+                new ForkJoinCrawler(handler, commonPool, dispatchTimer, crawlerConfig.getWorkersPerSite()).crawl();
+            }
+            completed = !stopRequested.get();
+            if (completed) completeSite(handler, session);
+            log.info("Crawl of {} finished, visited URLs: {}", site.getUrl(), frontier.visitedCount());
+        } finally {
+            checkpointer.release(session, completed);
+        }
 
         countingCompletedThreadPools();
     }
 
+    private Site prepareSite(SiteFromList siteFromList, IndexingMode mode) {
+        Site site = (mode != IndexingMode.FULL) ? coordinator.findSite(siteFromList) : null;
+        if (site == null) return coordinator.getSiteFromListAndSave(siteFromList);
+
+        if (mode == IndexingMode.INCREMENTAL) {
+            coordinator.saveFinalSiteData(site.getId(), Status.INDEXING, "");
+            return site;
+        }
+
+        if (checkpointer.hasCheckpoint(site.getId())) {
+            coordinator.saveFinalSiteData(site.getId(), Status.INDEXING, "");
+            return site;
+        }
+        if (Status.INDEXED.equals(site.getStatus())) {
+            log.info("Site {} is already indexed, nothing to resume", site.getUrl());
+            return null;
+        }
+
+        coordinator.deleteSiteData(site);
+        return coordinator.getSiteFromListAndSave(siteFromList);
+    }
+
+    private void completeSite(PageHandler handler, CrawlSession session) {
+        handler.removeVanishedPages();
+        boolean flushed = checkpointer.completeSite(session);
+
+        long siteId = session.getSite().getId();
+        if (!flushed) {
+            coordinator.saveFinalSiteData(siteId, Status.FAILED, "Failed to store the index of the site");
+        } else if (!Status.FAILED.equals(coordinator.getSiteById(siteId).getStatus())) {
+            coordinator.saveFinalSiteData(siteId, Status.INDEXED, "");
+        }
+        siteIdsForEnding.remove(siteId);
+    }
+
+    private void restoreCheckpoint(Site site, UrlFrontier frontier) {
+        long pageWatermark = checkpointer.restore(site.getId(), frontier);
+        coordinator.rollbackPagesAfter(site.getId(), pageWatermark);
+
+        log.info("Resuming {} from a checkpoint: visited URLs {}, pending URLs {}",
+                site.getUrl(), frontier.visitedCount(), frontier.pendingCount());
+    }
+
     private void countingCompletedThreadPools() {
         if (stopRequested.get()) return;
         remainingTasks.decrementAndGet();
 
         if(remainingTasks.get() == FINAL_TASKS) {
-            coordinator.addLemmaAndIndexToTheDatabase(stopRequested);
+            checkpointer.complete();
             completeSiteIndexing();
         }
     }
 
     private void completeSiteIndexing() {
-        siteIdsForEnding.forEach((siteId) -> {
-            if(!Status.FAILED.equals(coordinator.getSiteById(siteId).getStatus())) {
-                coordinator.saveFinalSiteData(siteId, Status.INDEXED, "");
-            }
-        });
-
         siteIdsForEnding.clear();
         remainingTasks.set(0);
+        shutdownCrawlExecutors();
         log.info("Sites parsing took: {} seconds", (System.currentTimeMillis() - measuringCodeExecutionTime) / 1000);
+        log.info("Morphology cache: size {}, hits {}, misses {}, hit rate {}", morphology.size(),
+                morphology.getHitCount(), morphology.getMissCount(), String.format("%.3f", morphology.getHitRate()));
     }
 
     @Override
@@ -105,7 +213,7 @@ public final class IndexingServiceImpl implements IndexingService {
         siteIdsForEnding.forEach((siteId) -> {
             coordinator.saveFinalSiteData(siteId, Status.FAILED, info);
         });
-        commonPool.shutdownNow();
+        shutdownCrawlExecutors();
 
         shutdownSiteExecutorAsync();
         siteIdsForEnding.clear();
@@ -117,19 +225,45 @@ public final class IndexingServiceImpl implements IndexingService {
 
     @Override
     public boolean indexPage(String path) {
-        if(!siteIdsForEnding.isEmpty()) return false;
+        if(!siteIdsForEnding.isEmpty() || bulkPageIndexing.isRunning()) return false;
         if(path == null || path.isBlank()) return false;
 
         Site site = coordinator.getSite(path, sitesFromConfigFile);
         if(site == null) return false;
 
-        return new SinglePageIndexing(coordinator, site).getIndexPageResult(path);
+        Lemmatizer<Document> lemmatizer = new Lemmatizer<>(morphology, doc -> doc.body().text());
+        return new SinglePageIndexing(coordinator, lemmatizer, site).getIndexPageResult(path);
+    }
+
+    @Override
+    public String indexPages(List<String> paths) {
+        if(!siteIdsForEnding.isEmpty() || remainingTasks.get() != 0) return null;
+        if(paths == null || paths.isEmpty()) return null;
+
+        return bulkPageIndexing.submit(paths);
+    }
+
+    @Override
+    public IndexPagesJobStatus getIndexPagesStatus(String jobId) {
+        return bulkPageIndexing.getStatus(jobId);
+    }
+
+    private void shutdownCrawlExecutors() {
+        if (fetchExecutor != null) fetchExecutor.shutdown();
+        if (cpuExecutor != null) cpuExecutor.shutdown();
+        if (dispatchTimer != null) dispatchTimer.shutdown();
+        if (pipeline != null) pipeline.shutdown();
+        fetchExecutor = null;
+        cpuExecutor = null;
+        dispatchTimer = null;
+        pipeline = null;
     }
 
     private void shutdownSiteExecutorAsync() {
         if(waitExecutorShutdown.getAndSet(true)) return;
 
         CompletableFuture.runAsync(() -> {
+            checkpointer.suspend();
             log.info("Shutting down siteExecutor.");
             siteExecutor.shutdown();
 
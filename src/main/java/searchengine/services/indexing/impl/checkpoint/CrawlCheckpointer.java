@@ -0,0 +1,228 @@
+package searchengine.services.indexing.impl.checkpoint;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.services.indexing.impl.parser.CrawlSession;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+import searchengine.services.indexing.impl.persistence.IndexingCoordinator;
+import searchengine.services.indexing.impl.persistence.PendingBatch;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public final class CrawlCheckpointer {
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".checkpoint";
+
+    private final Map<Long, CrawlSession> sessions = new ConcurrentHashMap<>();
+    private final Set<Long> unflushedSites = ConcurrentHashMap.newKeySet();
+    private final IndexingCoordinator coordinator;
+    private final CrawlerConfig crawlerConfig;
+
+    private volatile ScheduledExecutorService timer;
+    private volatile boolean suspended;
+
+    public synchronized void start() {
+        stop();
+        sessions.values().forEach(session -> session.getFrontier().close());
+        sessions.clear();
+        unflushedSites.clear();
+        suspended = false;
+
+        long interval = crawlerConfig.getCheckpointInterval();
+        if (interval <= 0) return;
+
+        ScheduledExecutorService newTimer = Executors.newSingleThreadScheduledExecutor();
+        newTimer.scheduleWithFixedDelay(this::checkpointSafely, interval, interval, TimeUnit.SECONDS);
+        timer = newTimer;
+    }
+
+    public void stop() {
+        ScheduledExecutorService currentTimer = timer;
+        timer = null;
+        if (currentTimer != null) currentTimer.shutdown();
+    }
+
+    public void register(CrawlSession session) {
+        sessions.put(session.getSite().getId(), session);
+    }
+
+    public void release(CrawlSession session, boolean completed) {
+        if (!completed && !suspended) return;
+
+        sessions.remove(session.getSite().getId(), session);
+        session.getFrontier().close();
+    }
+
+    public synchronized boolean completeSite(CrawlSession session) {
+        long siteId = session.getSite().getId();
+        sessions.remove(siteId, session);
+
+        PendingBatch batch;
+        boolean written;
+        session.getBuffers().getFlushLock().lock();
+        try {
+            batch = session.exclusive(() -> coordinator.drainPendingBatch(session.getBuffers()));
+            written = coordinator.writePendingBatch(session.getBuffers(), batch);
+        } finally {
+            session.getBuffers().getFlushLock().unlock();
+        }
+
+        if (!written) {
+            unflushedSites.add(siteId);
+            log.error("Failed to flush the buffers of site {}, the last checkpoint is kept", siteId);
+            return false;
+        }
+        delete(siteId);
+        log.info("Buffers of site {} flushed, index rows: {}", siteId, batch.size());
+        return true;
+    }
+
+    public synchronized void suspend() {
+        stop();
+        checkpoint();
+
+        suspended = true;
+        sessions.values().forEach(session -> session.getFrontier().close());
+        sessions.clear();
+    }
+
+    public synchronized void complete() {
+        stop();
+        deleteAll(unflushedSites);
+    }
+
+    public synchronized void checkpoint() {
+        long startTime = System.currentTimeMillis();
+        int savedSites = 0;
+        int indexRows = 0;
+
+        for (CrawlSession session : sessions.values()) {
+            session.getBuffers().getFlushLock().lock();
+            try {
+                AtomicBoolean saved = new AtomicBoolean();
+                PendingBatch batch = session.exclusive(() -> {
+                    PendingBatch drained = coordinator.drainPendingBatch(session.getBuffers());
+                    saved.set(writeTemporary(session.getSite().getId(), session.getFrontier()));
+                    return drained;
+                });
+
+                boolean written = coordinator.writePendingBatch(session.getBuffers(), batch);
+                indexRows += batch.size();
+                if (!written) {
+                    log.warn("Index rows of site {} were not stored, the checkpoint is not published",
+                            session.getSite().getId());
+                } else if (saved.get()) {
+                    publish(session.getSite().getId());
+                    savedSites++;
+                }
+            } finally {
+                session.getBuffers().getFlushLock().unlock();
+            }
+        }
+
+        log.info("Crawl checkpoint saved in {} ms, sites: {}, index rows: {}",
+                System.currentTimeMillis() - startTime, savedSites, indexRows);
+    }
+
+    private void checkpointSafely() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.error("Failed to save a crawl checkpoint: {}", e.getMessage(), e);
+        }
+    }
+
+    public boolean hasCheckpoint(long siteId) {
+        return Files.exists(path(siteId));
+    }
+
+    public long restore(long siteId, UrlFrontier frontier) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(siteId))))) {
+            if (in.readInt() != FORMAT_VERSION || in.readLong() != siteId) {
+                throw new IOException("Unsupported checkpoint format");
+            }
+
+            long pageWatermark = in.readLong();
+            if (in.readBoolean()) frontier.readState(in);
+            return pageWatermark;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore the checkpoint of site " + siteId, e);
+        }
+    }
+
+    public void delete(long siteId) {
+        try {
+            Files.deleteIfExists(path(siteId));
+        } catch (IOException e) {
+            log.error("Failed to delete the checkpoint of site {}: {}", siteId, e.getMessage());
+        }
+    }
+
+    public void deleteAll() {
+        deleteAll(Set.of());
+    }
+
+    private void deleteAll(Set<Long> keptSites) {
+        Path directory = Path.of(crawlerConfig.getFrontierDir());
+        if (!Files.isDirectory(directory)) return;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "site-*" + SUFFIX)) {
+            for (Path file : files) {
+                if (keptSites.stream().noneMatch(siteId -> file.getFileName().equals(path(siteId).getFileName()))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to delete crawl checkpoints: {}", e.getMessage());
+        }
+    }
+
+    private boolean writeTemporary(long siteId, UrlFrontier frontier) {
+        Path temporary = temporaryPath(siteId);
+
+        try {
+            Files.createDirectories(temporary.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(siteId);
+                out.writeLong(coordinator.getPageWatermark(siteId));
+                out.writeBoolean(true);
+                frontier.writeState(out);
+            }
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Failed to write the checkpoint of site {}: {}", siteId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void publish(long siteId) {
+        try {
+            Files.move(temporaryPath(siteId), path(siteId),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to publish the checkpoint of site {}: {}", siteId, e.getMessage(), e);
+        }
+    }
+
+    private Path path(long siteId) {
+        return Path.of(crawlerConfig.getFrontierDir(), "site-" + siteId + SUFFIX);
+    }
+
+    private Path temporaryPath(long siteId) {
+        return Path.of(crawlerConfig.getFrontierDir(), "site-" + siteId + SUFFIX + ".tmp");
+    }
+}
@@ -0,0 +1,42 @@
+package searchengine.services.indexing.impl.morphology;
+
+import java.util.Arrays;
+
+public final class CyrillicTokenizer {
+    private static final int INITIAL_BUFFER_SIZE = 32;
+
+    @FunctionalInterface
+    public interface WordConsumer {
+        void accept(char[] lowerCaseWord, int length, int start, int end);
+    }
+
+    private CyrillicTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, WordConsumer consumer) {
+        char[] buffer = new char[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        int start = -1;
+
+        for (int i = 0, textLength = text.length(); i <= textLength; i++) {
+            char lowerCase = (i < textLength) ? toLowerCaseCyrillic(text.charAt(i)) : 0;
+
+            if (lowerCase != 0) {
+                if (start < 0) start = i;
+                if (length == buffer.length) buffer = Arrays.copyOf(buffer, length << 1);
+                buffer[length++] = lowerCase;
+            } else if (start >= 0) {
+                consumer.accept(buffer, length, start, i);
+                start = -1;
+                length = 0;
+            }
+        }
+    }
+
+    public static char toLowerCaseCyrillic(char c) {
+        if (c >= 'а' && c <= 'я') return c;
+        if (c >= 'А' && c <= 'Я') return (char) (c + ('а' - 'А'));
+        if (c == 'ё' || c == 'Ё') return 'е';
+        return 0;
+    }
+}
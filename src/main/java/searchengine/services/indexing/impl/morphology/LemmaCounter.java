@@ -0,0 +1,61 @@
+package searchengine.services.indexing.impl.morphology;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class LemmaCounter {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public void increment(String lemma) {
+        if ((size + 1) * 2 > keys.length) resize();
+
+        int slot = findSlot(keys, lemma);
+        if (keys[slot] == null) {
+            keys[slot] = lemma;
+            size++;
+        }
+        counts[slot]++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> result = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) result.put(keys[i], counts[i]);
+        }
+        return result;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new String[oldKeys.length << 1];
+        counts = new int[oldKeys.length << 1];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+
+            int slot = findSlot(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    private static int findSlot(String[] table, String key) {
+        int mask = table.length - 1;
+        int hash = key.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        while (table[slot] != null && !table[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
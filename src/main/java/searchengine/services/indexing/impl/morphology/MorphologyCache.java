@@ -0,0 +1,102 @@
+package searchengine.services.indexing.impl.morphology;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.springframework.stereotype.Component;
+import searchengine.config.MorphologyCacheConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public final class MorphologyCache {
+    private static final Set<String> SERVICE_PARTS_OF_SPEECH = Set.of("МЕЖД", "СОЮЗ", "ПРЕДЛ", "ЧАСТ");
+
+    private final LuceneMorphology morphology;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MorphologyCache(LuceneMorphology morphology, MorphologyCacheConfig config) {
+        this.morphology = morphology;
+
+        int segmentCount = Math.max(1, config.getSegments());
+        int segmentCapacity = Math.max(0, config.getCapacity()) / segmentCount;
+        boolean accessOrder = config.getEviction() == MorphologyCacheConfig.Eviction.LRU;
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity, accessOrder);
+        }
+    }
+
+    public WordForm normalize(String lowerCaseWord) {
+        Segment segment = segments[Math.floorMod(lowerCaseWord.hashCode(), segments.length)];
+        WordForm wordForm = segment.find(lowerCaseWord);
+
+        if (wordForm != null) {
+            hits.increment();
+            return wordForm;
+        }
+
+        misses.increment();
+        wordForm = analyze(lowerCaseWord);
+        segment.store(lowerCaseWord, wordForm);
+        return wordForm;
+    }
+
+    private WordForm analyze(String word) {
+        String lemma = morphology.getNormalForms(word).get(0);
+        boolean servicePart = morphology.getMorphInfo(lemma).stream()
+                .anyMatch(info -> SERVICE_PARTS_OF_SPEECH.stream().anyMatch(info::contains));
+
+        return new WordForm(lemma, servicePart);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return (total == 0) ? 0 : (double) hitCount / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) size += segment.count();
+        return size;
+    }
+
+    private static final class Segment extends LinkedHashMap<String, WordForm> {
+        private final int capacity;
+
+        private Segment(int capacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        private synchronized WordForm find(String word) {
+            return get(word);
+        }
+
+        private synchronized void store(String word, WordForm wordForm) {
+            if (capacity > 0) put(word, wordForm);
+        }
+
+        private synchronized int count() {
+            return size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WordForm> eldest) {
+            return size() > capacity;
+        }
+    }
+}
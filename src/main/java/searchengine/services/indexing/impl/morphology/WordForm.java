@@ -0,0 +1,11 @@
+package searchengine.services.indexing.impl.morphology;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public final class WordForm {
+    private final String lemma;
+    private final boolean servicePart;
+}
@@ -0,0 +1,314 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Service;
+import searchengine.config.CrawlerConfig;
+import searchengine.config.SitesListConfig;
+import searchengine.config.UserAgentAndRefererConfig;
+import searchengine.dto.indexing.IndexPagesJobStatus;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.model.enums.Status;
+import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
+import searchengine.services.indexing.impl.persistence.IndexingCoordinator;
+import searchengine.services.indexing.impl.persistence.utils.UrlUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public final class BulkPageIndexing {
+    private static final int MAX_STORED_JOBS = 100;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int HTTP_ERROR_CODE = 400;
+    private static final int TIMEOUT_MILLIS = 15000;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final Object writeLock = new Object();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final int maxInFlight;
+    private final Lemmatizer<Document> lemmatizer;
+
+    private final IndexingCoordinator coordinator;
+    private final UserAgentAndRefererConfig config;
+    private final PolitenessScheduler politeness;
+    private final SitesListConfig sitesFromConfigFile;
+    private final CrawlerConfig crawlerConfig;
+
+    public BulkPageIndexing(IndexingCoordinator coordinator, MorphologyCache morphology,
+                            UserAgentAndRefererConfig config, PolitenessScheduler politeness,
+                            SitesListConfig sitesFromConfigFile, CrawlerConfig crawlerConfig) {
+        this.coordinator = coordinator;
+        this.config = config;
+        this.politeness = politeness;
+        this.sitesFromConfigFile = sitesFromConfigFile;
+        this.crawlerConfig = crawlerConfig;
+        this.lemmatizer = new Lemmatizer<>(morphology, doc -> doc.body().text());
+        this.maxInFlight = Math.max(1, crawlerConfig.getIndexPagesParallelism());
+        this.executor = Executors.newFixedThreadPool(maxInFlight, indexPagesThreads("index-pages-"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(indexPagesThreads("index-pages-timer-"));
+    }
+
+    public boolean isRunning() {
+        return runningJobs.get() > 0;
+    }
+
+    public String submit(Collection<String> urls) {
+        List<String> distinctUrls = urls.stream().filter(url -> url != null && !url.isBlank()).distinct().toList();
+        Job job = new Job(UUID.randomUUID().toString(), distinctUrls);
+        store(job);
+        runningJobs.incrementAndGet();
+        log.info("Index pages job {} started, URLs: {}", job.id, distinctUrls.size());
+
+        if (distinctUrls.isEmpty()) {
+            executor.execute(() -> finish(job));
+        } else {
+            dispatch(job);
+        }
+        return job.id;
+    }
+
+    public IndexPagesJobStatus getStatus(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) return null;
+
+        return IndexPagesJobStatus.builder()
+                .jobId(job.id)
+                .finished(job.finished)
+                .total(job.total)
+                .indexed(job.indexed.get())
+                .failed(job.failed.get())
+                .errors(List.copyOf(job.errors))
+                .build();
+    }
+
+    private void dispatch(Job job) {
+        String url;
+        while ((url = job.next(maxInFlight)) != null) {
+            Site site = null;
+            try {
+                site = resolveSite(job, url);
+                if (site == null) {
+                    job.fail(url, "The page is located outside the sites specified in the configuration file");
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to resolve the site of {}: {}", url, e.getMessage(), e);
+                job.fail(url, String.valueOf(e));
+            }
+
+            if (site != null) {
+                schedule(job, url, site);
+            } else if (job.release()) {
+                executor.execute(() -> finish(job));
+            }
+        }
+    }
+
+    private void schedule(Job job, String url, Site site) {
+        scheduler.schedule(() -> executor.execute(() -> indexAndRelease(job, url, site)),
+                politeness.reserve(site.getId()), TimeUnit.NANOSECONDS);
+    }
+
+    private void indexAndRelease(Job job, String url, Site site) {
+        try {
+            indexUrl(job, url, site);
+        } finally {
+            if (job.release()) {
+                finish(job);
+            } else {
+                dispatch(job);
+            }
+        }
+    }
+
+    private void indexUrl(Job job, String url, Site site) {
+        try {
+            Document document = Jsoup.connect(url)
+                    .userAgent(config.getUserAgent())
+                    .referrer(config.getReferer())
+                    .ignoreHttpErrors(true)
+                    .timeout(TIMEOUT_MILLIS)
+                    .get();
+
+            Connection.Response response = document.connection().response();
+            politeness.onResponse(site.getId(), response.statusCode(), response.header("Retry-After"));
+            if (response.statusCode() >= HTTP_ERROR_CODE) {
+                job.fail(url, "HTTP status " + response.statusCode());
+                return;
+            }
+
+            Page page = coordinator.buildPage(site, url, response.statusCode(), document);
+            Map<Page, Map<String, Integer>> batch = job.add(site, page, lemmatizer.createLemmaMap(document),
+                    Math.max(1, crawlerConfig.getIndexPagesBatchSize()));
+            if (!batch.isEmpty()) write(job, site, batch);
+        } catch (IOException e) {
+            job.fail(url, String.valueOf(e));
+        } catch (RuntimeException e) {
+            log.error("Failed to index {}: {}", url, e.getMessage(), e);
+            job.fail(url, String.valueOf(e));
+        }
+    }
+
+    private Site resolveSite(Job job, String url) {
+        synchronized (job) {
+            for (Site site : job.sites) {
+                if (url.startsWith(site.getUrl())) return site;
+            }
+
+            Site existing = coordinator.findSiteForPage(url);
+            Site site = (existing != null) ? existing : coordinator.getSite(url, sitesFromConfigFile);
+            if (site == null) return null;
+
+            job.sites.add(site);
+            if (existing == null) job.createdSites.add(site);
+            sitesFromConfigFile.getSites().stream()
+                    .filter(siteFromList -> site.getUrl().equals(UrlUtils.normalizeSiteUrl(siteFromList.getUrl())))
+                    .findFirst()
+                    .ifPresent(siteFromList -> politeness.register(site.getId(), siteFromList));
+            return site;
+        }
+    }
+
+    private void write(Job job, Site site, Map<Page, Map<String, Integer>> batch) {
+        boolean written;
+        try {
+            synchronized (writeLock) {
+                written = coordinator.reindexPages(site, batch);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to store {} pages of {}: {}", batch.size(), site.getUrl(), e.getMessage(), e);
+            written = false;
+        }
+
+        if (written) {
+            job.indexed.addAndGet(batch.size());
+        } else {
+            job.markFailed(site);
+            batch.keySet().forEach(page -> job.fail(site.getUrl() + page.getPath(), "Failed to store the page"));
+        }
+    }
+
+    private void finish(Job job) {
+        try {
+            job.drainAll().forEach((site, batch) -> write(job, site, batch));
+            job.sites.forEach(site -> finishSite(job, site));
+        } catch (RuntimeException e) {
+            log.error("Failed to finish index pages job {}: {}", job.id, e.getMessage(), e);
+        } finally {
+            job.finished = true;
+            runningJobs.decrementAndGet();
+        }
+
+        log.info("Index pages job {} finished, indexed: {}, failed: {}", job.id, job.indexed.get(), job.failed.get());
+    }
+
+    private void finishSite(Job job, Site site) {
+        boolean created = job.createdSites.contains(site);
+        if (job.hasFailed(site)) {
+            if (created) coordinator.saveFinalSiteData(site.getId(), Status.FAILED, "Failed to store indexed pages");
+        } else if (created || Status.INDEXED.equals(site.getStatus())) {
+            coordinator.saveFinalSiteData(site.getId(), Status.INDEXED, "");
+        }
+    }
+
+    private void store(Job job) {
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            Iterator<Job> iterator = jobs.values().iterator();
+            while (jobs.size() > MAX_STORED_JOBS && iterator.hasNext()) {
+                if (iterator.next().finished) iterator.remove();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory indexPagesThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Job {
+        private final String id;
+        private final int total;
+        private final AtomicInteger indexed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        private final List<Site> sites = new ArrayList<>();
+        private final Set<Site> createdSites = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Site> failedSites = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Map<Site, Map<Page, Map<String, Integer>>> pending = new IdentityHashMap<>();
+        private final Queue<String> queued;
+        private int inFlight;
+        private volatile boolean finished;
+
+        private Job(String id, List<String> urls) {
+            this.id = id;
+            this.total = urls.size();
+            this.queued = new ArrayDeque<>(urls);
+        }
+
+        private synchronized String next(int maxInFlight) {
+            if (inFlight >= maxInFlight || queued.isEmpty()) return null;
+
+            inFlight++;
+            return queued.poll();
+        }
+
+        private synchronized void markFailed(Site site) {
+            failedSites.add(site);
+        }
+
+        private synchronized boolean hasFailed(Site site) {
+            return failedSites.contains(site);
+        }
+
+        private synchronized boolean release() {
+            inFlight--;
+            return inFlight == 0 && queued.isEmpty();
+        }
+
+        private synchronized Map<Page, Map<String, Integer>> add(Site site, Page page,
+                                                                 Map<String, Integer> lemmaRanks, int batchSize) {
+            Map<Page, Map<String, Integer>> sitePages = pending.computeIfAbsent(site, key -> new LinkedHashMap<>());
+            sitePages.put(page, lemmaRanks);
+            if (sitePages.size() < batchSize) return Map.of();
+
+            pending.remove(site);
+            return sitePages;
+        }
+
+        private synchronized Map<Site, Map<Page, Map<String, Integer>>> drainAll() {
+            Map<Site, Map<Page, Map<String, Integer>>> drained = new IdentityHashMap<>(pending);
+            pending.clear();
+            return drained;
+        }
+
+        private void fail(String url, String error) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(url + ": " + error);
+            log.warn("Index pages job {}: {} - {}", id, url, error);
+        }
+    }
+}
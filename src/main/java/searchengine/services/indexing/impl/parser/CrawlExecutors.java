@@ -0,0 +1,20 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+public final class CrawlExecutors {
+
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, falling back to a cached thread pool.",
+                    Runtime.version().feature());
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import searchengine.model.Site;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+import searchengine.services.indexing.impl.persistence.SiteBuffers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+@Getter
+public final class CrawlSession {
+    private final Site site;
+    private final UrlFrontier frontier;
+    private final KnownPages knownPages;
+    private final SiteBuffers buffers;
+    private final AtomicInteger pageCounter = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    public CrawlSession(Site site, UrlFrontier frontier, KnownPages knownPages, int flushIndexRows) {
+        this.site = site;
+        this.frontier = frontier;
+        this.knownPages = knownPages;
+        this.buffers = new SiteBuffers(site, flushIndexRows);
+    }
+
+    public int commit(IntSupplier pageCommit) {
+        commitLock.readLock().lock();
+        try {
+            return pageCommit.getAsInt();
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    public <T> T exclusive(Supplier<T> action) {
+        commitLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public final class ForkJoinCrawler {
+    private final PageHandler handler;
+    private final UrlFrontier frontier;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService dispatchTimer;
+    private final int maxWorkers;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private int pagesInFlight;
+
+    public ForkJoinCrawler(PageHandler handler, ForkJoinPool pool, ScheduledExecutorService dispatchTimer,
+                           int maxWorkers) {
+        this.handler = handler;
+        this.frontier = handler.getFrontier();
+        this.pool = pool;
+        this.dispatchTimer = dispatchTimer;
+        this.maxWorkers = Math.max(1, maxWorkers);
+    }
+
+    public void crawl() {
+        frontier.offer(handler.getSite().getUrl());
+        dispatch();
+        completion.join();
+    }
+
+    private synchronized void dispatch() {
+        if (completion.isDone()) return;
+
+        String url;
+        while (pagesInFlight < maxWorkers && (url = nextUrl()) != null) {
+            String dispatched = url;
+            pagesInFlight++;
+            try {
+                dispatchTimer.schedule(() -> launch(dispatched), handler.reserveFetchSlot(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                handler.skipPage(dispatched);
+                pagesInFlight--;
+                break;
+            }
+        }
+        if (pagesInFlight == 0) completion.complete(null);
+    }
+
+    private String nextUrl() {
+        return handler.isStopped() ? null : frontier.poll();
+    }
+
+    private void launch(String url) {
+        try {
+            pool.execute(() -> work(url));
+        } catch (RejectedExecutionException e) {
+            handler.skipPage(url);
+            finishPage();
+        }
+    }
+
+    private void work(String url) {
+        try {
+            crawlPage(url);
+        } catch (RuntimeException e) {
+            log.error("Error processing URL: {}", url, e);
+            handler.skipPage(url);
+        } finally {
+            finishPage();
+        }
+    }
+
+    private void crawlPage(String url) {
+        if (handler.isStopped()) return;
+
+        try {
+            Document document = handler.fetch(url);
+            handler.commitPage(url, document);
+        } catch (IOException e) {
+            handler.failSite(e);
+            handler.skipPage(url);
+        }
+    }
+
+    private synchronized void finishPage() {
+        pagesInFlight--;
+        dispatch();
+    }
+}
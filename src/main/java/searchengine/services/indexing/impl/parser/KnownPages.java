@@ -0,0 +1,36 @@
+package searchengine.services.indexing.impl.parser;
+
+import searchengine.dto.indexing.PageMetadata;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class KnownPages {
+    private final Map<String, PageMetadata> pages = new ConcurrentHashMap<>();
+
+    public KnownPages(List<PageMetadata> metadata) {
+        metadata.forEach(page -> pages.put(page.getPath(), page));
+    }
+
+    public static KnownPages empty() {
+        return new KnownPages(List.of());
+    }
+
+    public PageMetadata get(String path) {
+        return pages.get(path);
+    }
+
+    public PageMetadata take(String path) {
+        return pages.remove(path);
+    }
+
+    public Collection<PageMetadata> remaining() {
+        return pages.values();
+    }
+
+    public int size() {
+        return pages.size();
+    }
+}
@@ -0,0 +1,182 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import searchengine.config.UserAgentAndRefererConfig;
+import searchengine.dto.indexing.PageMetadata;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.model.enums.Status;
+import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+import searchengine.services.indexing.impl.persistence.IndexingCoordinator;
+import searchengine.services.indexing.impl.persistence.utils.UrlUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+@Slf4j
+@RequiredArgsConstructor
+public final class PageHandler {
+    private static final Pattern FORBIDDEN_PATTERN =
+            Pattern.compile("(?i).+\\.(jpg|jpeg|png|gif|bmp|pdf)(\\?.*)?$");
+    private static final int HTTP_ERROR_CODE = 400;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_GONE = 410;
+
+    private final IndexingCoordinator coordinator;
+    private final Lemmatizer<Document> lemmatizer;
+    private final UserAgentAndRefererConfig config;
+    private final PolitenessScheduler politeness;
+    @Getter
+    private final CrawlSession session;
+    @Getter
+    private final AtomicBoolean stopRequested;
+
+    public Site getSite() {
+        return session.getSite();
+    }
+
+    public UrlFrontier getFrontier() {
+        return session.getFrontier();
+    }
+
+    public boolean isStopped() {
+        return stopRequested.get();
+    }
+
+    public long reserveFetchSlot() {
+        return politeness.reserve(getSite().getId());
+    }
+
+    public Document fetch(String url) throws IOException {
+        Connection connection = Jsoup.connect(url)
+                .userAgent(config.getUserAgent())
+                .referrer(config.getReferer())
+                .ignoreHttpErrors(true)
+                .timeout(15000);
+
+        PageMetadata known = session.getKnownPages().get(UrlUtils.extractPath(url, getSite().getUrl()));
+        if (known != null && known.getEtag() != null) connection.header("If-None-Match", known.getEtag());
+        if (known != null && known.getLastModified() != null) {
+            connection.header("If-Modified-Since", known.getLastModified());
+        }
+
+        Document document = connection.get();
+
+        Connection.Response response = document.connection().response();
+        politeness.onResponse(getSite().getId(), response.statusCode(), response.header("Retry-After"));
+        return document;
+    }
+
+    public void failSite(IOException e) {
+        log.error("Error in connection: {}", String.valueOf(e));
+        coordinator.saveFinalSiteData(getSite().getId(), Status.FAILED, String.valueOf(e));
+    }
+
+    public int commitPage(String pageUrl, Document document) {
+        return persist(lemmatize(parse(pageUrl, document)));
+    }
+
+    public PageWork parse(String pageUrl, Document document) {
+        PageWork work = new PageWork(pageUrl, document);
+        int statusCode = document.connection().response().statusCode();
+        if (pageUrl.equals(getSite().getUrl()) || statusCode >= HTTP_ERROR_CODE) {
+            if (statusCode >= HTTP_ERROR_CODE && !isGone(statusCode)) keepStoredPage(pageUrl, statusCode);
+            work.links = extractLinks(document);
+            return work;
+        }
+
+        work.known = session.getKnownPages().take(UrlUtils.extractPath(pageUrl, getSite().getUrl()));
+        if (work.known != null && statusCode == HTTP_NOT_MODIFIED) {
+            log.debug("Not modified: {}", pageUrl);
+            work.links = extractLinks(coordinator.loadStoredDocument(work.known.getId(), pageUrl));
+            return work;
+        }
+
+        work.page = coordinator.buildPage(getSite(), pageUrl, statusCode, document);
+        work.unchanged = work.known != null && work.page.getContentHash().equals(work.known.getContentHash());
+        work.links = extractLinks(document);
+        return work;
+    }
+
+    private void keepStoredPage(String pageUrl, int statusCode) {
+        if (session.getKnownPages().take(UrlUtils.extractPath(pageUrl, getSite().getUrl())) != null) {
+            log.warn("Keeping the stored copy of {} after HTTP {}", pageUrl, statusCode);
+        }
+    }
+
+    private static boolean isGone(int statusCode) {
+        return statusCode == HTTP_NOT_FOUND || statusCode == HTTP_GONE;
+    }
+
+    public PageWork lemmatize(PageWork work) {
+        if (work.page != null && !work.unchanged) work.lemmaRanks = lemmatizer.createLemmaMap(work.document);
+        return work;
+    }
+
+    public int persist(PageWork work) {
+        int newLinks = session.commit(() -> {
+            savePage(work);
+            int offered = (int) work.links.stream().filter(session.getFrontier()::offer).count();
+            session.getFrontier().complete(work.getUrl());
+            return offered;
+        });
+
+        if (session.getBuffers().isFlushDue()) coordinator.flushPendingBatch(session.getBuffers());
+        return newLinks;
+    }
+
+    public void skipPage(String pageUrl) {
+        session.getKnownPages().take(UrlUtils.extractPath(pageUrl, getSite().getUrl()));
+        session.getFrontier().complete(pageUrl);
+    }
+
+    private void savePage(PageWork work) {
+        Page page = work.page;
+        if (page == null) return;
+
+        if (work.unchanged) {
+            coordinator.updatePageValidators(work.known.getId(), page);
+        } else if (work.known != null) {
+            log.info("{} {} (changed)", session.getPageCounter().incrementAndGet(), work.getUrl());
+            coordinator.updateChangedPage(getSite(), work.known.getId(), page, work.lemmaRanks);
+        } else {
+            log.info("{} {}", session.getPageCounter().incrementAndGet(), work.getUrl());
+            // postings first: the page batch may be written right away and resolves them
+            coordinator.bufferLemmasAndIndices(session.getBuffers(), page, work.lemmaRanks);
+            coordinator.createPageBatchInsert(session.getBuffers(), page);
+        }
+    }
+
+    public void removeVanishedPages() {
+        List<Long> vanishedPageIds = new ArrayList<>();
+        session.getKnownPages().remaining().forEach(page -> {
+            log.info("Page disappeared from {}: {}", getSite().getUrl(), page.getPath());
+            vanishedPageIds.add(page.getId());
+        });
+        coordinator.deleteVanishedPages(getSite(), vanishedPageIds);
+    }
+
+    private List<String> extractLinks(Document document) {
+        return document.select("a[href^=/]").stream()
+                .map(element -> element.absUrl("href"))
+                .filter(childUrl -> !shouldSkipUrl(childUrl))
+                .distinct()
+                .toList();
+    }
+
+    private boolean shouldSkipUrl(String childLink) {
+        return !childLink.startsWith(getSite().getUrl())
+                || childLink.contains("#")
+                || FORBIDDEN_PATTERN.matcher(childLink).matches();
+    }
+}
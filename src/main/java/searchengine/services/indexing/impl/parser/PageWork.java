@@ -0,0 +1,25 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.Getter;
+import org.jsoup.nodes.Document;
+import searchengine.dto.indexing.PageMetadata;
+import searchengine.model.Page;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public final class PageWork {
+    private final String url;
+    private final Document document;
+    PageMetadata known;
+    Page page;
+    boolean unchanged;
+    List<String> links = List.of();
+    Map<String, Integer> lemmaRanks;
+
+    PageWork(String url, Document document) {
+        this.url = url;
+        this.document = document;
+    }
+}
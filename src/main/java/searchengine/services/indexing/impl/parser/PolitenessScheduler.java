@@ -0,0 +1,101 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlerConfig;
+import searchengine.config.SiteFromList;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public final class PolitenessScheduler {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    private final Map<Long, HostBudget> budgets = new ConcurrentHashMap<>();
+    private final CrawlerConfig crawlerConfig;
+
+    public void register(long siteId, SiteFromList siteFromList) {
+        long delayMillis = (siteFromList.getCrawlDelay() != null)
+                ? siteFromList.getCrawlDelay()
+                : crawlerConfig.getCrawlDelay();
+        long maxDelayMillis = Math.max(delayMillis, crawlerConfig.getMaxCrawlDelay());
+
+        budgets.put(siteId, new HostBudget(TimeUnit.MILLISECONDS.toNanos(delayMillis),
+                TimeUnit.MILLISECONDS.toNanos(maxDelayMillis)));
+    }
+
+    public long reserve(long siteId) {
+        return budget(siteId).reserve();
+    }
+
+    public void onResponse(long siteId, int statusCode, String retryAfter) {
+        HostBudget budget = budget(siteId);
+
+        if (statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HTTP_SERVICE_UNAVAILABLE) {
+            if (!crawlerConfig.isAdaptiveBackoff()) return;
+
+            long interval = budget.backOff(parseRetryAfter(retryAfter));
+            log.warn("Site {} answered {}, crawl delay raised to {} ms", siteId, statusCode,
+                    TimeUnit.NANOSECONDS.toMillis(interval));
+        } else {
+            budget.recover();
+        }
+    }
+
+    public void clear() {
+        budgets.clear();
+    }
+
+    private HostBudget budget(long siteId) {
+        return budgets.computeIfAbsent(siteId, id -> new HostBudget(
+                TimeUnit.MILLISECONDS.toNanos(crawlerConfig.getCrawlDelay()),
+                TimeUnit.MILLISECONDS.toNanos(crawlerConfig.getMaxCrawlDelay())));
+    }
+
+    private static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) return 0;
+
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class HostBudget {
+        private final long baseInterval;
+        private final long maxInterval;
+        private long interval;
+        private long nextAllowed;
+
+        private HostBudget(long baseInterval, long maxInterval) {
+            this.baseInterval = baseInterval;
+            this.maxInterval = maxInterval;
+            this.interval = baseInterval;
+            this.nextAllowed = System.nanoTime();
+        }
+
+        private synchronized long reserve() {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextAllowed);
+            nextAllowed = slot + interval;
+            return slot - now;
+        }
+
+        private synchronized long backOff(long retryAfter) {
+            interval = Math.min(maxInterval, Math.max(interval * 2, Math.max(baseInterval, 1)));
+            nextAllowed = Math.max(nextAllowed, System.nanoTime() + Math.max(interval, retryAfter));
+            return interval;
+        }
+
+        private synchronized void recover() {
+            if (interval > baseInterval) interval = Math.max(baseInterval, interval * 3 / 4);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import searchengine.model.Lemma;
 import searchengine.model.Page;
 import searchengine.model.Site;
 import searchengine.model.enums.Status;
@@ -18,13 +17,14 @@ import java.util.Map;
 @RequiredArgsConstructor
 public final class SinglePageIndexing {
     private final IndexingCoordinator coordinator;
+    private final Lemmatizer<Document> lemmatizer;
     private final Site site;
 
     public boolean getIndexPageResult(String path) {
         try {
             Document document = Jsoup.connect(path).timeout(15000).get();
             int statusCode = document.connection().response().statusCode();
-            updateDataInDb(path, document, statusCode);
+            if (!updateDataInDb(path, document, statusCode)) return false;
 
             log.info("The page at: {} has been updated", path);
             return true;
@@ -37,18 +37,12 @@ public final class SinglePageIndexing {
         }
     }
 
-    private void updateDataInDb(String path, Document document, int statusCode) {
-        Lemmatizer<Document> lemmatizer = new Lemmatizer<>(doc -> doc.body().text());
+    private boolean updateDataInDb(String path, Document document, int statusCode) {
         Map<String, Integer> lemmaList = lemmatizer.createLemmaMap(document);
+        Page page = coordinator.buildPage(site, path, statusCode, document);
 
-        coordinator.deletePageData(path, site, lemmaList);
-        Page page = coordinator.savePage(site, path, statusCode, document);
-
-        lemmaList.forEach((lemmaText, count) -> {
-            Lemma lemma = coordinator.saveLemma(site, lemmaText);
-            coordinator.saveIndex(page, lemma, count);
-        });
-
+        if (!coordinator.reindexPages(site, Map.of(page, lemmaList))) return false;
         coordinator.saveFinalSiteData(site.getId(), Status.INDEXED, "");
+        return true;
     }
 }
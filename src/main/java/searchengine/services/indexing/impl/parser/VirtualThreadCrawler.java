@@ -0,0 +1,125 @@
+package searchengine.services.indexing.impl.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+public final class VirtualThreadCrawler {
+    private final PageHandler handler;
+    private final UrlFrontier frontier;
+    private final Executor fetchExecutor;
+    private final Executor cpuExecutor;
+    private final ScheduledExecutorService dispatchTimer;
+    private final Semaphore fetchPermits;
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private int pagesInFlight;
+
+    public VirtualThreadCrawler(PageHandler handler, Executor fetchExecutor, Executor cpuExecutor,
+                                ScheduledExecutorService dispatchTimer, Semaphore fetchPermits) {
+        this.handler = handler;
+        this.frontier = handler.getFrontier();
+        this.fetchExecutor = fetchExecutor;
+        this.cpuExecutor = cpuExecutor;
+        this.dispatchTimer = dispatchTimer;
+        this.fetchPermits = fetchPermits;
+    }
+
+    public void crawl() {
+        frontier.offer(handler.getSite().getUrl());
+        wakeDispatcher();
+        completion.join();
+    }
+
+    private void wakeDispatcher() {
+        if (dispatching.compareAndSet(false, true)) dispatchNext();
+    }
+
+    private void dispatchNext() {
+        String url = takeNext();
+        if (url == null) {
+            dispatching.set(false);
+            if (!handler.isStopped() && !frontier.isEmpty()) wakeDispatcher();
+            return;
+        }
+
+        try {
+            dispatchTimer.schedule(() -> launch(url), handler.reserveFetchSlot(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            dispatching.set(false);
+            finishPage();
+        }
+    }
+
+    private void launch(String url) {
+        try {
+            fetchExecutor.execute(() -> fetch(url));
+        } catch (RejectedExecutionException e) {
+            finishPage();
+        }
+        dispatchNext();
+    }
+
+    private synchronized String takeNext() {
+        String url = handler.isStopped() ? null : frontier.poll();
+        if (url != null) {
+            pagesInFlight++;
+        } else if (pagesInFlight == 0) {
+            completion.complete(null);
+        }
+        return url;
+    }
+
+    private void fetch(String url) {
+        if (handler.isStopped()) {
+            finishPage();
+            return;
+        }
+
+        try {
+            fetchPermits.acquire();
+            try {
+                Document document = handler.fetch(url);
+                cpuExecutor.execute(() -> process(url, document));
+            } finally {
+                fetchPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finishPage();
+        } catch (IOException e) {
+            handler.failSite(e);
+            handler.skipPage(url);
+            finishPage();
+        } catch (RejectedExecutionException e) {
+            finishPage();
+        } catch (RuntimeException e) {
+            log.error("Error fetching URL: {}", url, e);
+            handler.skipPage(url);
+            finishPage();
+        }
+    }
+
+    private void process(String url, Document document) {
+        try {
+            if (handler.isStopped()) return;
+
+            if (handler.commitPage(url, document) > 0) wakeDispatcher();
+        } catch (RuntimeException e) {
+            log.error("Error processing URL: {}", url, e);
+            handler.skipPage(url);
+        } finally {
+            finishPage();
+        }
+    }
+
+    private synchronized void finishPage() {
+        pagesInFlight--;
+        if (pagesInFlight == 0 && (handler.isStopped() || frontier.isEmpty())) completion.complete(null);
+    }
+}
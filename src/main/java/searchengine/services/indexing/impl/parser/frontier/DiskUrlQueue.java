@@ -0,0 +1,165 @@
+package searchengine.services.indexing.impl.parser.frontier;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+public final class DiskUrlQueue implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long flushedOffset;
+    private long readOffset;
+    private long size;
+
+    public DiskUrlQueue(Path file) {
+        this.file = file;
+
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the URL queue " + file, e);
+        }
+        readBuffer.limit(0);
+    }
+
+    public synchronized void offer(String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        if (writeBuffer.remaining() < Integer.BYTES + bytes.length) flush();
+
+        if (Integer.BYTES + bytes.length > writeBuffer.capacity()) {
+            write(ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).flip());
+        } else {
+            writeBuffer.putInt(bytes.length).put(bytes);
+        }
+        size++;
+    }
+
+    public synchronized String poll() {
+        if (size == 0) return null;
+        if (nextPosition() >= flushedOffset) flush();
+
+        if (readBuffer.remaining() < Integer.BYTES) refill(nextPosition());
+        int length = readBuffer.getInt();
+        if (readBuffer.remaining() < length) refill(nextPosition());
+
+        byte[] bytes = new byte[length];
+        if (readBuffer.remaining() >= length) {
+            readBuffer.get(bytes);
+        } else {
+            readDirect(bytes);
+        }
+
+        if (--size == 0) reset();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized void forEachPending(Consumer<String> action) {
+        if (size == 0) return;
+        if (writeBuffer.position() > 0) flush();
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel.position(nextPosition())), BUFFER_SIZE));
+            for (long i = 0; i < size; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                action.accept(new String(bytes, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the URL queue " + file, e);
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove the URL queue " + file, e);
+        }
+    }
+
+    private long nextPosition() {
+        return readOffset + readBuffer.position();
+    }
+
+    private void refill(long position) {
+        readOffset = position;
+        readBuffer.clear();
+        try {
+            while (readBuffer.hasRemaining() && position + readBuffer.position() < flushedOffset) {
+                if (channel.read(readBuffer, position + readBuffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the URL queue " + file, e);
+        }
+        readBuffer.flip();
+    }
+
+    private void readDirect(byte[] bytes) {
+        long position = nextPosition();
+        ByteBuffer target = ByteBuffer.wrap(bytes);
+        try {
+            while (target.hasRemaining()) {
+                position += channel.read(target, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the URL queue " + file, e);
+        }
+
+        readOffset = position;
+        readBuffer.clear().limit(0);
+    }
+
+    private void reset() {
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to truncate the URL queue " + file, e);
+        }
+
+        writeBuffer.clear();
+        readBuffer.clear().limit(0);
+        flushedOffset = 0;
+        readOffset = 0;
+    }
+
+    private void flush() {
+        write(writeBuffer.flip());
+        writeBuffer.clear();
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                flushedOffset += channel.write(buffer, flushedOffset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the URL queue " + file, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package searchengine.services.indexing.impl.parser.frontier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+public final class UrlFrontier implements AutoCloseable {
+    private final VisitedSet visited = new VisitedSet();
+    private final Set<String> inFlight = new HashSet<>();
+    private final DiskUrlQueue queue;
+
+    public UrlFrontier(Path directory, long siteId) {
+        this.queue = new DiskUrlQueue(directory.resolve("site-" + siteId + ".queue"));
+    }
+
+    public synchronized boolean offer(String url) {
+        if (!visited.add(url)) return false;
+
+        queue.offer(url);
+        return true;
+    }
+
+    public synchronized String poll() {
+        String url = queue.poll();
+        if (url != null) inFlight.add(url);
+        return url;
+    }
+
+    public synchronized void complete(String url) {
+        inFlight.remove(url);
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public long pendingCount() {
+        return queue.size();
+    }
+
+    public int visitedCount() {
+        return visited.size();
+    }
+
+    public synchronized void writeState(DataOutput out) throws IOException {
+        long[] fingerprints = visited.toArray();
+        out.writeInt(fingerprints.length);
+        for (long fingerprint : fingerprints) out.writeLong(fingerprint);
+
+        out.writeLong(inFlight.size() + queue.size());
+        for (String url : inFlight) writeUrl(out, url);
+        queue.forEachPending(url -> {
+            try {
+                writeUrl(out, url);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public synchronized void readState(DataInput in) throws IOException {
+        int visitedCount = in.readInt();
+        for (int i = 0; i < visitedCount; i++) visited.addFingerprint(in.readLong());
+
+        long pendingCount = in.readLong();
+        for (long i = 0; i < pendingCount; i++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            queue.offer(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeUrl(DataOutput out, String url) throws IOException {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void close() {
+        queue.close();
+    }
+}
@@ -0,0 +1,83 @@
+package searchengine.services.indexing.impl.parser.frontier;
+
+public final class VisitedSet {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long[] fingerprints = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public synchronized boolean add(String url) {
+        return addFingerprint(fingerprint(url));
+    }
+
+    public synchronized boolean contains(String url) {
+        long fingerprint = fingerprint(url);
+        int mask = fingerprints.length - 1;
+
+        for (int slot = (int) fingerprint & mask; fingerprints[slot] != 0; slot = (slot + 1) & mask) {
+            if (fingerprints[slot] == fingerprint) return true;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        fingerprints = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    synchronized long[] toArray() {
+        long[] result = new long[size];
+        int position = 0;
+        for (long fingerprint : fingerprints) {
+            if (fingerprint != 0) result[position++] = fingerprint;
+        }
+        return result;
+    }
+
+    synchronized boolean addFingerprint(long fingerprint) {
+        if ((size + 1) * 2 > fingerprints.length) rehash(fingerprints.length << 1);
+
+        int mask = fingerprints.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (fingerprints[slot] != 0) {
+            if (fingerprints[slot] == fingerprint) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        fingerprints[slot] = fingerprint;
+        size++;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = fingerprints;
+        fingerprints = new long[capacity];
+        int mask = capacity - 1;
+
+        for (long fingerprint : old) {
+            if (fingerprint == 0) continue;
+
+            int slot = (int) fingerprint & mask;
+            while (fingerprints[slot] != 0) slot = (slot + 1) & mask;
+            fingerprints[slot] = fingerprint;
+        }
+    }
+
+    static long fingerprint(String url) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < url.length(); i++) {
+            hash = (hash ^ url.charAt(i)) * FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (hash == 0) ? 1 : hash;
+    }
+}
@@ -0,0 +1,64 @@
+package searchengine.services.indexing.impl.parser.pipeline;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import searchengine.config.CrawlerConfig;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Getter
+public final class CrawlPipeline {
+    private final ExecutorService fetchExecutor;
+    private final Semaphore fetchPermits;
+    private final PipelineStage parseStage;
+    private final PipelineStage lemmatizeStage;
+    private final PipelineStage persistStage;
+    private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+    private final LongAdder fetched = new LongAdder();
+    private final AtomicInteger activeFetches = new AtomicInteger();
+    private final int maxFetches;
+    private long reportedFetches;
+
+    public CrawlPipeline(CrawlerConfig config, ExecutorService fetchExecutor) {
+        int capacity = config.getStageQueueCapacity();
+        this.fetchExecutor = fetchExecutor;
+        this.maxFetches = config.getMaxConcurrentFetches();
+        this.fetchPermits = new Semaphore(maxFetches);
+        this.parseStage = new PipelineStage("parse", config.getParseThreads(), capacity);
+        this.lemmatizeStage = new PipelineStage("lemmatize", config.getCpuThreads(), capacity);
+        this.persistStage = new PipelineStage("persist", config.getPersistThreads(), capacity);
+
+        long interval = Math.max(1, config.getPipelineReportInterval());
+        reporter.scheduleAtFixedRate(() -> report(interval), interval, interval, TimeUnit.SECONDS);
+    }
+
+    void fetchStarted() {
+        activeFetches.incrementAndGet();
+    }
+
+    void fetchFinished(boolean success) {
+        activeFetches.decrementAndGet();
+        if (success) fetched.increment();
+    }
+
+    private void report(double seconds) {
+        long count = fetched.sum();
+        double throughput = (count - reportedFetches) / seconds;
+        reportedFetches = count;
+
+        log.info("Crawl pipeline: fetch {} pages/s, active {}/{}; {}; {}; {}",
+                String.format("%.1f", throughput), activeFetches.get(), maxFetches,
+                parseStage.report(seconds), lemmatizeStage.report(seconds), persistStage.report(seconds));
+    }
+
+    public void shutdown() {
+        reporter.shutdown();
+        fetchExecutor.shutdown();
+        parseStage.shutdown();
+        lemmatizeStage.shutdown();
+        persistStage.shutdown();
+    }
+}
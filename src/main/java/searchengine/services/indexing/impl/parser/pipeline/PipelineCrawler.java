@@ -0,0 +1,157 @@
+package searchengine.services.indexing.impl.parser.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import searchengine.services.indexing.impl.parser.PageHandler;
+import searchengine.services.indexing.impl.parser.PageWork;
+import searchengine.services.indexing.impl.parser.frontier.UrlFrontier;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public final class PipelineCrawler {
+    private final PageHandler handler;
+    private final UrlFrontier frontier;
+    private final CrawlPipeline pipeline;
+    private final ScheduledExecutorService dispatchTimer;
+    private final int maxFetchers;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private int fetchesInFlight;
+    private int pagesInFlight;
+
+    public PipelineCrawler(PageHandler handler, CrawlPipeline pipeline, ScheduledExecutorService dispatchTimer,
+                           int maxFetchers) {
+        this.handler = handler;
+        this.frontier = handler.getFrontier();
+        this.pipeline = pipeline;
+        this.dispatchTimer = dispatchTimer;
+        this.maxFetchers = Math.max(1, maxFetchers);
+    }
+
+    public void crawl() {
+        frontier.offer(handler.getSite().getUrl());
+        dispatch();
+        completion.join();
+    }
+
+    private synchronized void dispatch() {
+        if (completion.isDone()) return;
+
+        String url;
+        while (fetchesInFlight < maxFetchers && (url = nextUrl()) != null) {
+            String dispatched = url;
+            fetchesInFlight++;
+            pagesInFlight++;
+            try {
+                dispatchTimer.schedule(() -> launch(dispatched), handler.reserveFetchSlot(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                handler.skipPage(dispatched);
+                fetchesInFlight--;
+                pagesInFlight--;
+                break;
+            }
+        }
+        if (pagesInFlight == 0) completion.complete(null);
+    }
+
+    private String nextUrl() {
+        return handler.isStopped() ? null : frontier.poll();
+    }
+
+    private void launch(String url) {
+        try {
+            pipeline.getFetchExecutor().execute(() -> fetch(url));
+        } catch (RejectedExecutionException e) {
+            handler.skipPage(url);
+            fetchFinished(false);
+        }
+    }
+
+    private void fetch(String url) {
+        boolean submitted = false;
+        try {
+            if (handler.isStopped()) return;
+
+            Document document = fetchWithPermit(url);
+            pipeline.getParseStage().submit(() -> runStage(url, () -> parse(url, document)));
+            submitted = true;
+        } catch (IOException e) {
+            handler.failSite(e);
+            handler.skipPage(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Error processing URL: {}", url, e);
+            handler.skipPage(url);
+        } finally {
+            fetchFinished(submitted);
+        }
+    }
+
+    private Document fetchWithPermit(String url) throws IOException, InterruptedException {
+        pipeline.getFetchPermits().acquire();
+        pipeline.fetchStarted();
+        boolean success = false;
+        try {
+            Document document = handler.fetch(url);
+            success = true;
+            return document;
+        } finally {
+            pipeline.fetchFinished(success);
+            pipeline.getFetchPermits().release();
+        }
+    }
+
+    private void parse(String url, Document document) throws InterruptedException {
+        PageWork work = handler.parse(url, document);
+        pipeline.getLemmatizeStage().submit(() -> runStage(url, () -> lemmatize(work)));
+    }
+
+    private void lemmatize(PageWork work) throws InterruptedException {
+        handler.lemmatize(work);
+        pipeline.getPersistStage().submit(() -> runStage(work.getUrl(), () -> persist(work)));
+    }
+
+    private void persist(PageWork work) {
+        handler.persist(work);
+        finishPage();
+    }
+
+    private void runStage(String url, StageTask task) {
+        if (handler.isStopped()) {
+            finishPage();
+            return;
+        }
+
+        try {
+            task.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finishPage();
+        } catch (RuntimeException e) {
+            log.error("Error processing URL: {}", url, e);
+            handler.skipPage(url);
+            finishPage();
+        }
+    }
+
+    private synchronized void fetchFinished(boolean submitted) {
+        fetchesInFlight--;
+        if (!submitted) pagesInFlight--;
+        dispatch();
+    }
+
+    private synchronized void finishPage() {
+        pagesInFlight--;
+        dispatch();
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,63 @@
+package searchengine.services.indexing.impl.parser.pipeline;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class PipelineStage {
+    private final String name;
+    private final int threads;
+    private final int capacity;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder processed = new LongAdder();
+    private long reportedCount;
+
+    public PipelineStage(String name, int threads, int capacity) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                queue, namedThreads(name));
+        executor.prestartAllCoreThreads();
+    }
+
+    public void submit(Runnable task) throws InterruptedException {
+        if (executor.isShutdown()) throw new RejectedExecutionException(name + " stage is shut down");
+
+        Runnable counted = () -> {
+            try {
+                task.run();
+            } finally {
+                processed.increment();
+            }
+        };
+        queue.put(counted);
+        if (executor.isShutdown() && executor.remove(counted)) {
+            throw new RejectedExecutionException(name + " stage is shut down");
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    String report(double seconds) {
+        long count = processed.sum();
+        double throughput = (count - reportedCount) / seconds;
+        reportedCount = count;
+
+        return String.format("%s %.1f pages/s, queue %d/%d, busy %d/%d",
+                name, throughput, queue.size(), capacity, executor.getActiveCount(), threads);
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "crawl-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,128 +1,188 @@
 package searchengine.services.indexing.impl.persistence;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
 import searchengine.config.SiteFromList;
 import searchengine.config.SitesListConfig;
-import searchengine.model.Lemma;
+import searchengine.dto.indexing.PageMetadata;
 import searchengine.model.Page;
 import searchengine.model.Site;
 import searchengine.model.enums.Status;
+import searchengine.services.indexing.impl.persistence.batch.LemmaIndexWriter;
 import searchengine.services.indexing.impl.persistence.batch.PageBatchInserter;
+import searchengine.services.indexing.impl.persistence.batch.PageReindexWriter;
+import searchengine.services.indexing.impl.persistence.batch.WriteResult;
+import searchengine.services.indexing.impl.persistence.utils.IdAllocator;
 import searchengine.services.indexing.impl.persistence.utils.IndexService;
 import searchengine.services.indexing.impl.persistence.utils.LemmaService;
+import searchengine.services.indexing.impl.persistence.utils.PageDeltaService;
 import searchengine.services.indexing.impl.persistence.utils.PageService;
 import searchengine.services.indexing.impl.persistence.utils.SiteService;
-import searchengine.services.indexing.impl.persistence.utils.UrlUtils;
+import searchengine.services.search.impl.engine.InvertedIndex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public final class IndexingCoordinator {
+    private static final int VANISHED_PAGES_BATCH_SIZE = 1000;
+
     private final SiteService siteService;
     private final PageService pageService;
     private final LemmaService lemmaService;
     private final IndexService indexService;
     private final PageBatchInserter pageBatchInserter;
-
-    public void clearAllBuffers() {
-        indexService.clearBuffer();
-        lemmaService.clearBuffer();
-        pageBatchInserter.clearBuffer();
-    }
+    private final LemmaIndexWriter lemmaIndexWriter;
+    private final PageReindexWriter pageReindexWriter;
+    private final PageDeltaService pageDeltaService;
+    private final InvertedIndex invertedIndex;
+    private final IdAllocator idAllocator;
 
     public void deleteDataAboutSites() {
         indexService.deleteAll();
         lemmaService.deleteAll();
         pageService.deleteAll();
         siteService.deleteAll();
+        invertedIndex.clear();
     }
 
-    public Site getSiteFromListAndSave(SiteFromList siteFromList) {
-        return siteService.save(siteFromList);
+    public void deleteSiteData(Site site) {
+        deletePagesAfter(site.getId(), 0);
+        lemmaService.deleteBySite(site.getId());
+        siteService.delete(site);
+        invertedIndex.removeSite(site.getId());
     }
 
-    public void saveFinalSiteData(long id, Status status, String error) {
-        siteService.updateStatus(id, status, error);
+    public void deletePagesAfter(long siteId, long pageId) {
+        indexService.deleteForPagesAfter(siteId, pageId);
+        pageService.deletePagesAfter(siteId, pageId);
     }
 
-    public Page savePage(Site site, String path, int statusCode, Document document) {
-        return pageService.save(site, path, statusCode, document);
+    public void rollbackPagesAfter(long siteId, long pageId) {
+        deletePagesAfter(siteId, pageId);
+        lemmaService.recountFrequencies(siteId);
+        invertedIndex.removePagesAfter(siteId, pageId);
     }
 
-    public Lemma saveLemma(Site site, String lemmaText) {
-        return lemmaService.saveOrUpdate(site, lemmaText);
+    public void releaseIdBlocks() {
+        idAllocator.reset();
     }
 
-    public void saveIndex(Page page, Lemma lemma, Integer count) {
-        indexService.save(page, lemma, count);
+    public long getPageWatermark(long siteId) {
+        return pageService.findMaxId(siteId);
+    }
+
+    public Site findSite(SiteFromList siteFromList) {
+        return siteService.findByUrl(siteFromList);
+    }
+
+    public Site getSiteFromListAndSave(SiteFromList siteFromList) {
+        return siteService.save(siteFromList);
+    }
+
+    public void saveFinalSiteData(long id, Status status, String error) {
+        siteService.updateStatus(id, status, error);
     }
 
     public Site getSite(String path, SitesListConfig sitesFromConfigFile) {
         return siteService.getSiteForOnePage(path, sitesFromConfigFile);
     }
 
+    public Site findSiteForPage(String path) {
+        return siteService.findSiteForPage(path);
+    }
+
     public Site getSiteById(long id) {
         return siteService.findById(id);
     }
 
-    public Lemma getLemma(Site site, String lemmaText, int frequency) {
-        return lemmaService.addLemma(site, lemmaText, frequency);
+    public void createPageBatchInsert(SiteBuffers buffers, Page page) {
+        pageBatchInserter.addPage(buffers, page);
     }
 
-    public Page createPageBatchInsert(Site site, String pageUrl, int statusCode, Document document) {
-        Page page = pageService.buildPage(site, pageUrl, statusCode, document);
-        pageBatchInserter.addPage(page);
-
-        return page;
+    public void bufferLemmasAndIndices(SiteBuffers buffers, Page page, Map<String, Integer> lemmaRanks) {
+        buffers.addPostings(page, lemmaRanks);
     }
 
-    public void createIndex(Page page, Lemma lemma, Integer rank) {
-        indexService.addIndex(page, lemma, rank);
+    public Page buildPage(Site site, String pageUrl, int statusCode, Document document) {
+        return pageService.buildPage(site, pageUrl, statusCode, document);
     }
 
-    public void deletePageData(String path, Site site, Map<String, Integer> lemmaList) {
-        String editedPath = UrlUtils.extractPath(path, site.getUrl());
-        Page page = pageService.getPage(editedPath);
+    public List<PageMetadata> getPageMetadata(long siteId) {
+        return pageService.getPageMetadata(siteId);
+    }
 
-        if (page != null) {
-            deleteLemmaAndIndexForOnePage(lemmaList);
-            pageService.deleteById(page.getId());
-        }
+    public Document loadStoredDocument(long pageId, String pageUrl) {
+        return pageService.loadStoredDocument(pageId, pageUrl);
     }
 
-    private void deleteLemmaAndIndexForOnePage(Map<String, Integer> lemmaList) {
-        if (lemmaList.isEmpty()) return;
+    public void updatePageValidators(long pageId, Page page) {
+        pageService.updateValidators(pageId, page.getEtag(), page.getLastModified());
+    }
 
-        List<Lemma> lemmas = lemmaService.findLemmas(lemmaList.keySet());
-        List<Lemma> lemmasToUpdate = new ArrayList<>();
-        List<Lemma> lemmasToDelete = new ArrayList<>();
+    public void updateChangedPage(Site site, long pageId, Page changed, Map<String, Integer> lemmaRanks) {
+        if (!pageDeltaService.updatePage(site, pageId, changed, lemmaRanks)) return;
 
-        lemmas.forEach( lemma -> {
-            indexService.deleteIndex(lemma);
+        invertedIndex.removePage(site.getId(), pageId);
+        invertedIndex.addPage(site.getId(), pageId, lemmaRanks);
+    }
 
-            if (lemma.getFrequency() > 1) {
-                lemma.setFrequency(lemma.getFrequency() - 1);
-                lemmasToUpdate.add(lemma);
-            } else {
-                lemmasToDelete.add(lemma);
+    public void deleteVanishedPages(Site site, List<Long> pageIds) {
+        for (int from = 0; from < pageIds.size(); from += VANISHED_PAGES_BATCH_SIZE) {
+            List<Long> chunk = pageIds.subList(from, Math.min(pageIds.size(), from + VANISHED_PAGES_BATCH_SIZE));
+            if (pageReindexWriter.deletePages(site, chunk)) {
+                chunk.forEach(pageId -> invertedIndex.removePage(site.getId(), pageId));
             }
-        });
+        }
+    }
+
+    public boolean reindexPages(Site site, Map<Page, Map<String, Integer>> pages) {
+        List<Long> replacedPageIds = pageReindexWriter.reindex(site, pages);
+        if (replacedPageIds == null) return false;
+
+        replacedPageIds.forEach(pageId -> invertedIndex.removePage(site.getId(), pageId));
+        pages.forEach((page, lemmaRanks) -> invertedIndex.addPage(site.getId(), page.getId(), lemmaRanks));
+        return true;
+    }
 
-        if (!lemmasToUpdate.isEmpty()) lemmaService.saveAll(lemmasToUpdate);
-        if (!lemmasToDelete.isEmpty()) lemmaService.deleteAllFromList(lemmasToDelete);
+    public PendingBatch drainPendingBatch(SiteBuffers buffers) {
+        pageBatchInserter.flushRemainingPages(buffers);
+        return buffers.drainPending();
     }
 
-    public void addLemmaAndIndexToTheDatabase(AtomicBoolean stopRequested) {
-        pageBatchInserter.flushRemainingPages();
-        Map<Lemma, Lemma> oldToNewLemmaMap = lemmaService.updatingTheDuplicateKey();
-        indexService.updateLemmaIdInIndex(oldToNewLemmaMap);
-        lemmaService.createBatchInsertForLemma(stopRequested);
-        indexService.createBatchInsertForIndex(stopRequested);
+    public void flushPendingBatch(SiteBuffers buffers) {
+        if (!buffers.getFlushLock().tryLock()) return;
+        try {
+            writePendingBatch(buffers, drainPendingBatch(buffers));
+        } finally {
+            buffers.getFlushLock().unlock();
+        }
+    }
+
+    public boolean writePendingBatch(SiteBuffers buffers, PendingBatch batch) {
+        if (batch.size() == 0) return true;
+
+        if (!lemmaIndexWriter.writeLemmas(batch)) {
+            buffers.requeue(batch, WriteResult.failed(batch.size()));
+            return false;
+        }
+
+        WriteResult result = indexService.insertPostings(batch);
+        if (result.isSuccess()) {
+            invertedIndex.addAll(batch);
+            return true;
+        }
+
+        invertedIndex.addAll(batch.without(result));
+        if (lemmaIndexWriter.releaseLemmas(batch, result)) {
+            buffers.requeue(batch, result);
+            log.warn("{} of {} index rows were not stored and are queued again", result.failedRows(), batch.size());
+        } else {
+            log.error("{} of {} index rows were not stored and are dropped", result.failedRows(), batch.size());
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package searchengine.services.indexing.impl.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class LemmaDictionary {
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final List<String> lemmas = new ArrayList<>();
+
+    int intern(String lemma) {
+        Integer slot = slots.get(lemma);
+        return (slot != null) ? slot : slots.computeIfAbsent(lemma, this::append);
+    }
+
+    String lemma(int slot) {
+        synchronized (lemmas) {
+            return lemmas.get(slot);
+        }
+    }
+
+    int size() {
+        synchronized (lemmas) {
+            return lemmas.size();
+        }
+    }
+
+    private int append(String lemma) {
+        synchronized (lemmas) {
+            lemmas.add(lemma);
+            return lemmas.size() - 1;
+        }
+    }
+}
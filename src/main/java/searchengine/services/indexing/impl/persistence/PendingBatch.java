@@ -0,0 +1,41 @@
+package searchengine.services.indexing.impl.persistence;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.model.Lemma;
+import searchengine.services.indexing.impl.persistence.batch.WriteResult;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public final class PendingBatch {
+    private final List<Lemma> lemmas;
+    private final long[] pageIds;
+    private final int[] lemmaIndexes;
+    private final float[] ranks;
+
+    public int size() {
+        return ranks.length;
+    }
+
+    public Lemma lemmaAt(int posting) {
+        return lemmas.get(lemmaIndexes[posting]);
+    }
+
+    public PendingBatch without(WriteResult failed) {
+        int retained = size() - failed.failedRows();
+        long[] retainedPageIds = new long[retained];
+        int[] retainedLemmaIndexes = new int[retained];
+        float[] retainedRanks = new float[retained];
+        int out = 0;
+        for (int i = 0; i < size(); i++) {
+            if (failed.isFailed(i)) continue;
+
+            retainedPageIds[out] = pageIds[i];
+            retainedLemmaIndexes[out] = lemmaIndexes[i];
+            retainedRanks[out++] = ranks[i];
+        }
+        return new PendingBatch(lemmas, retainedPageIds, retainedLemmaIndexes, retainedRanks);
+    }
+}
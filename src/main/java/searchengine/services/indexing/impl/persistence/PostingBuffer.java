@@ -0,0 +1,142 @@
+package searchengine.services.indexing.impl.persistence;
+
+import searchengine.model.Lemma;
+import searchengine.model.Page;
+import searchengine.model.Site;
+
+import java.util.*;
+
+final class PostingBuffer {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<Page, Integer> unresolvedPages = new IdentityHashMap<>();
+    private long[] pageIds = new long[INITIAL_CAPACITY / 8];
+    private int pageCount;
+
+    private int[] postingPages = new int[INITIAL_CAPACITY];
+    private int[] postingLemmas = new int[INITIAL_CAPACITY];
+    private float[] postingRanks = new float[INITIAL_CAPACITY];
+    private int size;
+
+    void add(Page page, int[] lemmaSlots, float[] ranks) {
+        if (lemmaSlots.length == 0) return;
+
+        int pageSlot = addPageSlot(page);
+        ensureCapacity(size + lemmaSlots.length);
+        for (int i = 0; i < lemmaSlots.length; i++) {
+            postingPages[size] = pageSlot;
+            postingLemmas[size] = lemmaSlots[i];
+            postingRanks[size] = ranks[i];
+            size++;
+        }
+    }
+
+    void addResolved(long[] resolvedPageIds, int[] lemmaSlots, float[] ranks) {
+        Map<Long, Integer> pageSlots = new HashMap<>();
+        ensureCapacity(size + ranks.length);
+        for (int i = 0; i < ranks.length; i++) {
+            postingPages[size] = pageSlots.computeIfAbsent(resolvedPageIds[i], this::addResolvedPageSlot);
+            postingLemmas[size] = lemmaSlots[i];
+            postingRanks[size] = ranks[i];
+            size++;
+        }
+    }
+
+    void resolve(List<Page> writtenPages, boolean persisted) {
+        for (Page page : writtenPages) {
+            Integer slot = unresolvedPages.remove(page);
+            if (slot != null && persisted) pageIds[slot] = page.getId();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    PendingBatch drain(Site site, LemmaDictionary dictionary) {
+        int[] batchLemmaIndexes = new int[dictionary.size()];
+        Arrays.fill(batchLemmaIndexes, -1);
+        List<Lemma> lemmas = new ArrayList<>();
+        int resolved = 0;
+        for (int i = 0; i < size; i++) {
+            if (pageIds[postingPages[i]] != 0) resolved++;
+        }
+
+        long[] batchPageIds = new long[resolved];
+        int[] batchLemmas = new int[resolved];
+        float[] batchRanks = new float[resolved];
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            long pageId = pageIds[postingPages[i]];
+            if (pageId == 0) continue;
+
+            int lemmaSlot = postingLemmas[i];
+            if (batchLemmaIndexes[lemmaSlot] < 0) {
+                batchLemmaIndexes[lemmaSlot] = lemmas.size();
+                lemmas.add(Lemma.builder().lemma(dictionary.lemma(lemmaSlot)).siteId(site).frequency(0).build());
+            }
+            Lemma lemma = lemmas.get(batchLemmaIndexes[lemmaSlot]);
+            lemma.setFrequency(lemma.getFrequency() + 1);
+
+            batchPageIds[out] = pageId;
+            batchLemmas[out] = batchLemmaIndexes[lemmaSlot];
+            batchRanks[out] = postingRanks[i];
+            out++;
+        }
+
+        retainUnresolved();
+        return new PendingBatch(lemmas, batchPageIds, batchLemmas, batchRanks);
+    }
+
+    private void retainUnresolved() {
+        int[] pageRemap = new int[pageCount];
+        Arrays.fill(pageRemap, -1);
+        long[] retainedPageIds = new long[Math.max(INITIAL_CAPACITY / 8, unresolvedPages.size())];
+        int retainedPages = 0;
+        for (Map.Entry<Page, Integer> entry : unresolvedPages.entrySet()) {
+            pageRemap[entry.getValue()] = retainedPages;
+            entry.setValue(retainedPages++);
+        }
+
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            int newPageSlot = pageRemap[postingPages[i]];
+            if (newPageSlot < 0) continue;
+
+            postingPages[retained] = newPageSlot;
+            postingLemmas[retained] = postingLemmas[i];
+            postingRanks[retained] = postingRanks[i];
+            retained++;
+        }
+
+        pageIds = retainedPageIds;
+        pageCount = retainedPages;
+        size = retained;
+    }
+
+    private int addPageSlot(Page page) {
+        if (pageCount == pageIds.length) pageIds = Arrays.copyOf(pageIds, pageCount << 1);
+
+        Integer slot = unresolvedPages.putIfAbsent(page, pageCount);
+        if (slot != null) return slot;
+
+        pageIds[pageCount] = 0;
+        return pageCount++;
+    }
+
+    private int addResolvedPageSlot(long pageId) {
+        if (pageCount == pageIds.length) pageIds = Arrays.copyOf(pageIds, pageCount << 1);
+
+        pageIds[pageCount] = pageId;
+        return pageCount++;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= postingRanks.length) return;
+
+        int capacity = Math.max(required, postingRanks.length << 1);
+        postingPages = Arrays.copyOf(postingPages, capacity);
+        postingLemmas = Arrays.copyOf(postingLemmas, capacity);
+        postingRanks = Arrays.copyOf(postingRanks, capacity);
+    }
+}
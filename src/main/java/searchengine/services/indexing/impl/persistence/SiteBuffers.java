@@ -0,0 +1,84 @@
+package searchengine.services.indexing.impl.persistence;
+
+import lombok.Getter;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.services.indexing.impl.persistence.batch.RowRange;
+import searchengine.services.indexing.impl.persistence.batch.WriteResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class SiteBuffers {
+    private final List<Page> pages = new ArrayList<>();
+    private final PostingBuffer postings = new PostingBuffer();
+    private final LemmaDictionary dictionary = new LemmaDictionary();
+    @Getter
+    private final Lock flushLock = new ReentrantLock();
+    private final Site site;
+    private final int flushIndexRows;
+
+    public SiteBuffers(Site site, int flushIndexRows) {
+        this.site = site;
+        this.flushIndexRows = flushIndexRows;
+    }
+
+    public synchronized List<Page> addPage(Page page, int batchSize) {
+        pages.add(page);
+        return (pages.size() >= batchSize) ? drainPages() : List.of();
+    }
+
+    public synchronized List<Page> drainPages() {
+        List<Page> drained = new ArrayList<>(pages);
+        pages.clear();
+        return drained;
+    }
+
+    public synchronized void pagesWritten(List<Page> writtenPages, boolean persisted) {
+        postings.resolve(writtenPages, persisted);
+    }
+
+    public void addPostings(Page page, Map<String, Integer> lemmaRanks) {
+        int[] lemmaSlots = new int[lemmaRanks.size()];
+        float[] ranks = new float[lemmaRanks.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : lemmaRanks.entrySet()) {
+            lemmaSlots[i] = dictionary.intern(entry.getKey());
+            ranks[i++] = entry.getValue();
+        }
+
+        synchronized (this) {
+            postings.add(page, lemmaSlots, ranks);
+        }
+    }
+
+    public void requeue(PendingBatch batch, WriteResult failed) {
+        int rows = failed.failedRows();
+        long[] pageIds = new long[rows];
+        int[] lemmaSlots = new int[rows];
+        float[] ranks = new float[rows];
+        int i = 0;
+        for (RowRange range : failed.getFailedRanges()) {
+            for (int row = range.getFrom(); row < range.getTo(); row++) {
+                pageIds[i] = batch.getPageIds()[row];
+                lemmaSlots[i] = dictionary.intern(batch.lemmaAt(row).getLemma());
+                ranks[i++] = batch.getRanks()[row];
+            }
+        }
+
+        synchronized (this) {
+            postings.addResolved(pageIds, lemmaSlots, ranks);
+        }
+    }
+
+    public synchronized boolean isFlushDue() {
+        return flushIndexRows > 0 && postings.size() >= flushIndexRows;
+    }
+
+    public synchronized PendingBatch drainPending() {
+        return postings.drain(site, dictionary);
+    }
+}
@@ -1,77 +1,168 @@
 package searchengine.services.indexing.impl.persistence.batch;
 
+import com.mysql.cj.jdbc.JdbcStatement;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import searchengine.config.BulkLoadConfig;
 
+import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
+@Service
 public final class BatchInserter {
+    private final DataSource dataSource;
+    private final BulkLoadConfig config;
+    private final ExecutorService executor;
 
-    public <T> void batchInsert(List<T> entities,
-                                String sql,
-                                BatchPreparedStatementSetter<T> setter,
-                                DataSource dataSource,
-                                int batchSize,
-                                AtomicBoolean stopRequested) {
-        try (Connection connection = dataSource.getConnection()) {
-            boolean originalAutoCommit = connection.getAutoCommit();
-            connection.setAutoCommit(false);
+    public BatchInserter(DataSource dataSource, BulkLoadConfig config) {
+        this.dataSource = dataSource;
+        this.config = config;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()), loaderThreads());
+    }
 
-            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    public <T> WriteResult batchInsert(List<T> entities, String sql, BatchPreparedStatementSetter<T> setter) {
+        return insertRows(entities.size(), sql, (ps, row) -> setter.setValues(ps, entities.get(row)));
+    }
 
-                int countingEntities = 0;
-                for (int i = 0; i < entities.size() && !stopRequested.get(); i++) {
-                    T entity = entities.get(i);
-                    setter.setValues(ps, entity);
-                    ps.addBatch();
-                    countingEntities++;
+    public WriteResult insertRows(int rows, String sql, RowBinder binder) {
+        int batchSize = Math.max(1, config.getBatchSize());
+        return writePartitioned(rows, Math.max(batchSize, config.getCommitRows()),
+                (connection, from, to) -> insertChunk(connection, from, to, sql, binder, batchSize));
+    }
 
-                    if (countingEntities % batchSize == 0) {
-                        ps.executeBatch();
-                        assignGeneratedKeys(ps, entities, i - batchSize + 1, batchSize, setter);
-                        log.info("{} lines out of {} have been uploaded.", countingEntities, entities.size());
-                    }
-                }
+    public <T> WriteResult loadRows(T rows, int count, String loadSql, RowEncoder<T> encoder) {
+        return writePartitioned(count, Math.max(1, config.getCommitRows()),
+                (connection, from, to) -> loadData(connection, loadSql, rows, encoder, from, to));
+    }
 
-                if (countingEntities % batchSize != 0) {
-                    int remaining = countingEntities % batchSize;
-                    ps.executeBatch();
-                    assignGeneratedKeys(ps, entities, entities.size() - remaining, remaining, setter);
-                    log.info("Final {} rows inserted.", remaining);
-                }
+    public boolean isLoadDataEnabled() {
+        return config.getMode() == BulkLoadConfig.Mode.LOAD_DATA;
+    }
+
+    private WriteResult writePartitioned(int rows, int commitRows, ChunkWriter writer) {
+        if (rows == 0) return WriteResult.success();
+
+        int batchSize = Math.max(1, config.getBatchSize());
+        int partitions = Math.max(1, Math.min(config.getParallelism(), (rows + batchSize - 1) / batchSize));
+        int partitionSize = (rows + partitions - 1) / partitions;
+        if (partitions == 1) return new WriteResult(writePartition(0, rows, commitRows, writer));
+
+        List<RowRange> ranges = new ArrayList<>(partitions);
+        List<Future<List<RowRange>>> futures = new ArrayList<>(partitions);
+        for (int from = 0; from < rows; from += partitionSize) {
+            RowRange range = new RowRange(from, Math.min(rows, from + partitionSize));
+            ranges.add(range);
+            futures.add(executor.submit(() -> writePartition(range.getFrom(), range.getTo(), commitRows, writer)));
+        }
+
+        List<RowRange> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                failed.addAll(futures.get(i).get());
+            } catch (ExecutionException e) {
+                log.error("Bulk load partition failed: {}", e.getCause().getMessage(), e.getCause());
+                failed.add(ranges.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                failed.addAll(ranges.subList(i, ranges.size()));
+                return new WriteResult(failed);
+            }
+        }
+
+        log.info("{} rows written in {} partitions, failed: {}.", rows, futures.size(),
+                failed.stream().mapToInt(RowRange::size).sum());
+        return new WriteResult(failed);
+    }
 
-                connection.commit();
+    private List<RowRange> writePartition(int from, int to, int commitRows, ChunkWriter writer) {
+        int committed = from;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
 
-            } catch (SQLException e) {
+            try {
+                for (int start = from; start < to; start += commitRows) {
+                    int end = Math.min(to, start + commitRows);
+                    writer.write(connection, start, end);
+                    connection.commit();
+                    committed = end;
+                }
+            } catch (SQLException | RuntimeException e) {
                 connection.rollback();
                 throw e;
             } finally {
                 connection.setAutoCommit(originalAutoCommit);
             }
-
-        } catch (SQLException e) {
-            log.error("SQL error during batch insert: {}", e.getMessage(), e);
+            return List.of();
+        } catch (SQLException | RuntimeException e) {
+            if (committed == to) {
+                log.warn("Error after committing rows [{}, {}): {}", from, to, e.getMessage());
+                return List.of();
+            }
+            log.error("Error during batch write of rows [{}, {}): {}", committed, to, e.getMessage(), e);
+            return List.of(new RowRange(committed, to));
         }
     }
 
-    private <T> void assignGeneratedKeys(PreparedStatement ps, List<T> entities,
-                                         int startIndex, int count,
-                                         BatchPreparedStatementSetter<T> setter) throws SQLException {
-        try (ResultSet rs = ps.getGeneratedKeys()) {
-            int index = 0;
-            while (rs.next() && index < count) {
-                long id = rs.getLong(1);
-                T entity = entities.get(startIndex + index);
-                setter.setGeneratedId(entity, id);
-                index++;
+    private static void insertChunk(Connection connection, int from, int to, String sql,
+                                    RowBinder binder, int batchSize) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int row = from; row < to; row++) {
+                binder.bind(ps, row);
+                ps.addBatch();
+                if ((row + 1 - from) % batchSize == 0 || row + 1 == to) ps.executeBatch();
             }
+        }
+    }
 
-            if (index != count) {
-                log.warn("Expected {} generated keys but got {}", count, index);
+    public static <T> void loadData(Connection connection, String loadSql, T rows, RowEncoder<T> encoder,
+                                    int from, int to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new TsvRowStream<>(rows, encoder, from, to));
+            statement.execute(loadSql);
+        }
+    }
+
+    public static <T> void executeBatches(Connection connection,
+                                          List<T> entities,
+                                          String sql,
+                                          BatchPreparedStatementSetter<T> setter,
+                                          int batchSize) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < entities.size(); i++) {
+                setter.setValues(ps, entities.get(i));
+                ps.addBatch();
+
+                if ((i + 1) % batchSize == 0) ps.executeBatch();
             }
+
+            if (entities.size() % batchSize != 0) ps.executeBatch();
         }
     }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory loaderThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "bulk-load-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Connection connection, int from, int to) throws SQLException;
+    }
 }
@@ -5,7 +5,5 @@ import java.sql.SQLException;
 
 public interface BatchPreparedStatementSetter<T> {
     void setValues(PreparedStatement ps, T entity) throws SQLException;
-
-    void setGeneratedId(T entity, long id);
 }
 
@@ -0,0 +1,72 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import searchengine.model.Lemma;
+import searchengine.services.indexing.impl.persistence.PendingBatch;
+import searchengine.services.indexing.impl.persistence.utils.LemmaService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public final class LemmaIndexWriter {
+    private final LemmaService lemmaService;
+    private final DataSource dataSource;
+
+    public boolean writeLemmas(PendingBatch batch) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                lemmaService.upsertLemmas(connection, batch.getLemmas());
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            log.error("SQL error while writing lemmas: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    public boolean releaseLemmas(PendingBatch batch, WriteResult failed) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (RowRange range : failed.getFailedRanges()) {
+            for (int row = range.getFrom(); row < range.getTo(); row++) {
+                Lemma lemma = batch.lemmaAt(row);
+                counts.merge(lemma.getId(), 1, Integer::sum);
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                lemmaService.decrementFrequencies(connection, counts);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            log.error("SQL error while releasing lemma frequencies: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+}
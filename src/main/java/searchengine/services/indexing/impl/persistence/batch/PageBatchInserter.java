@@ -4,62 +4,64 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import searchengine.model.Page;
+import searchengine.services.indexing.impl.persistence.SiteBuffers;
+import searchengine.services.indexing.impl.persistence.batch.setters.PageRowEncoder;
 import searchengine.services.indexing.impl.persistence.batch.setters.PageStatementSetter;
+import searchengine.services.indexing.impl.persistence.utils.IdAllocator;
 
-import javax.sql.DataSource;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public final class PageBatchInserter {
-    private static final List<Page> PAGE_BUFFER = Collections.synchronizedList(new ArrayList<>());
     private static final int PAGE_BATCH_SIZE = 100;
+    static final String INSERT_PAGE_SQL = """
+            INSERT INTO page (id, path, site_id, code, content, title, plain_text, content_hash, etag, last_modified)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String LOAD_PAGE_SQL = """
+            LOAD DATA LOCAL INFILE 'page.tsv' INTO TABLE page CHARACTER SET utf8mb4
+            (id, path, site_id, code, @content, title, plain_text, content_hash, etag, last_modified)
+            SET content = UNHEX(@content)
+            """;
 
-    private final DataSource dataSource;
+    private final BatchInserter batchInserter;
+    private final IdAllocator idAllocator;
 
-    public void addPage(Page page) {
-        PAGE_BUFFER.add(page);
-        if (PAGE_BUFFER.size() >= PAGE_BATCH_SIZE) flush();
+    public void addPage(SiteBuffers buffers, Page page) {
+        page.setId(idAllocator.nextId(IdAllocator.PAGE));
+        List<Page> batchToInsert = buffers.addPage(page, PAGE_BATCH_SIZE);
+        if (!batchToInsert.isEmpty()) insert(buffers, batchToInsert);
     }
 
-    private void flush() {
-        if (PAGE_BUFFER.isEmpty()) return;
+    public void flushRemainingPages(SiteBuffers buffers) {
+        List<Page> batchToInsert = buffers.drainPages();
+        if (!batchToInsert.isEmpty()) insert(buffers, batchToInsert);
+    }
 
-        List<Page> batchToInsert;
-        synchronized (PAGE_BUFFER) {
-            batchToInsert = new ArrayList<>(PAGE_BUFFER);
-            PAGE_BUFFER.clear();
+    private void insert(SiteBuffers buffers, List<Page> batchToInsert) {
+        WriteResult result = createBatchInsertForPage(batchToInsert);
+        if (result.isSuccess()) {
+            buffers.pagesWritten(batchToInsert, true);
+            return;
         }
 
-        createBatchInsertForPage(batchToInsert);
-    }
-
-    public void flushRemainingPages() {
-        log.info("Sending the last batch insert for page.");
-        flush();
+        List<Page> persisted = new ArrayList<>();
+        List<Page> failed = new ArrayList<>();
+        for (int i = 0; i < batchToInsert.size(); i++) {
+            (result.isFailed(i) ? failed : persisted).add(batchToInsert.get(i));
+        }
+        log.warn("{} of {} pages were not stored", failed.size(), batchToInsert.size());
+        buffers.pagesWritten(persisted, true);
+        buffers.pagesWritten(failed, false);
     }
 
-    private void createBatchInsertForPage(List<Page> batchToInsert) {
+    private WriteResult createBatchInsertForPage(List<Page> batchToInsert) {
         log.info("Create a batch insert for a {} record page.", batchToInsert.size());
-        String pageSql = "INSERT INTO page (path, site_id, code, content) VALUES (?, ?, ?, ?)";
-        BatchInserter inserter = new BatchInserter();
-        PageStatementSetter setter = new PageStatementSetter();
-
-        inserter.batchInsert(
-                batchToInsert,
-                pageSql,
-                setter,
-                dataSource,
-                PAGE_BATCH_SIZE,
-                new AtomicBoolean()
-        );
-    }
-
-    public void clearBuffer() {
-        PAGE_BUFFER.clear();
+        return batchInserter.isLoadDataEnabled()
+                ? batchInserter.loadRows(batchToInsert, batchToInsert.size(), LOAD_PAGE_SQL, new PageRowEncoder())
+                : batchInserter.batchInsert(batchToInsert, INSERT_PAGE_SQL, new PageStatementSetter());
     }
 }
@@ -0,0 +1,184 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import searchengine.model.Lemma;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.services.indexing.impl.persistence.batch.setters.PageStatementSetter;
+import searchengine.services.indexing.impl.persistence.utils.IdAllocator;
+import searchengine.services.indexing.impl.persistence.utils.LemmaService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public final class PageReindexWriter {
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT_INDEX_SQL = "INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)";
+    private static final String DELETE_INDEX_SQL = "DELETE FROM `index` WHERE page_id IN (%s)";
+    private static final String DELETE_PAGES_SQL = "DELETE FROM page WHERE id IN (%s)";
+    private static final String DELETE_UNUSED_LEMMAS_SQL = "DELETE FROM lemma WHERE id IN (%s) AND frequency <= 0";
+
+    private final LemmaService lemmaService;
+    private final IdAllocator idAllocator;
+    private final DataSource dataSource;
+
+    public List<Long> reindex(Site site, Map<Page, Map<String, Integer>> pages) {
+        if (pages.isEmpty()) return List.of();
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                List<Long> replacedPageIds = findPageIds(connection, site, pages.keySet());
+                Map<Long, Integer> replacedLemmas = countIndexedLemmas(connection, replacedPageIds);
+                deleteReplacedPages(connection, replacedPageIds, replacedLemmas);
+
+                List<Page> newPages = new ArrayList<>(pages.keySet());
+                newPages.forEach(page -> page.setId(idAllocator.nextId(IdAllocator.PAGE)));
+                BatchInserter.executeBatches(connection, newPages, PageBatchInserter.INSERT_PAGE_SQL,
+                        new PageStatementSetter(), BATCH_SIZE);
+
+                Map<String, Lemma> lemmas = upsertLemmas(connection, site, pages.values());
+                insertIndex(connection, pages, lemmas);
+                executeForIds(connection, DELETE_UNUSED_LEMMAS_SQL, new ArrayList<>(replacedLemmas.keySet()));
+
+                connection.commit();
+                log.info("Reindexed {} pages of {}, replaced: {}, lemmas: {}",
+                        pages.size(), site.getUrl(), replacedPageIds.size(), lemmas.size());
+                return replacedPageIds;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while reindexing pages of {}: {}", site.getUrl(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    public boolean deletePages(Site site, List<Long> pageIds) {
+        if (pageIds.isEmpty()) return true;
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                Map<Long, Integer> removedLemmas = countIndexedLemmas(connection, pageIds);
+                deleteReplacedPages(connection, pageIds, removedLemmas);
+                executeForIds(connection, DELETE_UNUSED_LEMMAS_SQL, new ArrayList<>(removedLemmas.keySet()));
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while deleting pages of {}: {}", site.getUrl(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private List<Long> findPageIds(Connection connection, Site site, Collection<Page> pages) throws SQLException {
+        String sql = "SELECT id FROM page WHERE site_id = ? AND path IN (" + placeholders(pages.size()) + ") FOR UPDATE";
+        List<Long> ids = new ArrayList<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, site.getId());
+            int parameter = 2;
+            for (Page page : pages) ps.setString(parameter++, page.getPath());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private Map<Long, Integer> countIndexedLemmas(Connection connection, List<Long> pageIds) throws SQLException {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (pageIds.isEmpty()) return counts;
+
+        String sql = "SELECT lemma_id, COUNT(*) FROM `index` WHERE page_id IN (" + placeholders(pageIds.size()) +
+                ") GROUP BY lemma_id";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            bindIds(ps, pageIds);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) counts.put(rs.getLong(1), rs.getInt(2));
+            }
+        }
+        return counts;
+    }
+
+    private void deleteReplacedPages(Connection connection, List<Long> pageIds,
+                                     Map<Long, Integer> replacedLemmas) throws SQLException {
+        if (pageIds.isEmpty()) return;
+
+        lemmaService.decrementFrequencies(connection, replacedLemmas);
+        executeForIds(connection, DELETE_INDEX_SQL, pageIds);
+        executeForIds(connection, DELETE_PAGES_SQL, pageIds);
+    }
+
+    private Map<String, Lemma> upsertLemmas(Connection connection, Site site,
+                                            Collection<Map<String, Integer>> lemmaRanks) throws SQLException {
+        Map<String, Lemma> lemmas = new HashMap<>();
+        for (Map<String, Integer> pageLemmas : lemmaRanks) {
+            for (String lemmaText : pageLemmas.keySet()) {
+                Lemma lemma = lemmas.computeIfAbsent(lemmaText, text -> lemmaService.buildLemma(site, text, 0));
+                lemma.setFrequency(lemma.getFrequency() + 1);
+            }
+        }
+
+        if (!lemmas.isEmpty()) lemmaService.upsertLemmas(connection, new ArrayList<>(lemmas.values()));
+        return lemmas;
+    }
+
+    private void insertIndex(Connection connection, Map<Page, Map<String, Integer>> pages,
+                             Map<String, Lemma> lemmas) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_INDEX_SQL)) {
+            int rows = 0;
+            for (Map.Entry<Page, Map<String, Integer>> page : pages.entrySet()) {
+                for (Map.Entry<String, Integer> entry : page.getValue().entrySet()) {
+                    ps.setLong(1, page.getKey().getId());
+                    ps.setLong(2, lemmas.get(entry.getKey()).getId());
+                    ps.setFloat(3, entry.getValue());
+                    ps.addBatch();
+                    if (++rows % BATCH_SIZE == 0) ps.executeBatch();
+                }
+            }
+            if (rows % BATCH_SIZE != 0) ps.executeBatch();
+        }
+    }
+
+    public static void executeForIds(Connection connection, String sql, List<Long> ids) throws SQLException {
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            try (PreparedStatement ps = connection.prepareStatement(sql.formatted(placeholders(chunk.size())))) {
+                bindIds(ps, chunk);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bindIds(PreparedStatement ps, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) ps.setLong(i + 1, ids.get(i));
+    }
+}
@@ -0,0 +1,9 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowBinder {
+    void bind(PreparedStatement ps, int row) throws SQLException;
+}
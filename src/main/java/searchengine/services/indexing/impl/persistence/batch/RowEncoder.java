@@ -0,0 +1,5 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+public interface RowEncoder<T> {
+    void encode(TsvRowWriter writer, T rows, int row);
+}
@@ -0,0 +1,19 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public final class RowRange {
+    private final int from;
+    private final int to;
+
+    public int size() {
+        return to - from;
+    }
+
+    public boolean contains(int row) {
+        return row >= from && row < to;
+    }
+}
@@ -0,0 +1,48 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import java.io.InputStream;
+
+final class TsvRowStream<T> extends InputStream {
+    private final RowEncoder<T> encoder;
+    private final T rows;
+    private final int to;
+    private final TsvRowWriter writer = new TsvRowWriter();
+    private int nextRow;
+    private int position;
+
+    TsvRowStream(T rows, RowEncoder<T> encoder, int from, int to) {
+        this.rows = rows;
+        this.encoder = encoder;
+        this.nextRow = from;
+        this.to = to;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) return -1;
+        return writer.buffer()[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) return 0;
+        if (!fill()) return -1;
+
+        int count = Math.min(length, writer.length() - position);
+        System.arraycopy(writer.buffer(), position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean fill() {
+        while (position == writer.length()) {
+            if (nextRow == to) return false;
+
+            writer.reset();
+            position = 0;
+            encoder.encode(writer, rows, nextRow++);
+            writer.endRow();
+        }
+        return true;
+    }
+}
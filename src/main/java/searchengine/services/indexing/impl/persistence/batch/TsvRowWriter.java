@@ -0,0 +1,96 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class TsvRowWriter {
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer = new byte[256];
+    private int length;
+    private boolean firstField = true;
+
+    public TsvRowWriter writeLong(long value) {
+        separate();
+        appendAscii(Long.toString(value));
+        return this;
+    }
+
+    public TsvRowWriter writeFloat(float value) {
+        separate();
+        appendAscii(Float.toString(value));
+        return this;
+    }
+
+    public TsvRowWriter writeString(String value) {
+        separate();
+        if (value == null) {
+            appendAscii("\\N");
+            return this;
+        }
+
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            switch (b) {
+                case '\\' -> appendEscaped((byte) '\\');
+                case '\t' -> appendEscaped((byte) 't');
+                case '\n' -> appendEscaped((byte) 'n');
+                case '\r' -> appendEscaped((byte) 'r');
+                case 0 -> appendEscaped((byte) '0');
+                default -> append(b);
+            }
+        }
+        return this;
+    }
+
+    public TsvRowWriter writeHex(byte[] value) {
+        separate();
+        ensureCapacity(length + value.length * 2);
+        for (byte b : value) {
+            buffer[length++] = HEX[(b >> 4) & 0x0F];
+            buffer[length++] = HEX[b & 0x0F];
+        }
+        return this;
+    }
+
+    void endRow() {
+        append((byte) '\n');
+        firstField = true;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    void reset() {
+        length = 0;
+        firstField = true;
+    }
+
+    private void separate() {
+        if (!firstField) append((byte) '\t');
+        firstField = false;
+    }
+
+    private void appendEscaped(byte b) {
+        append((byte) '\\');
+        append(b);
+    }
+
+    private void appendAscii(String value) {
+        ensureCapacity(length + value.length());
+        for (int i = 0; i < value.length(); i++) buffer[length++] = (byte) value.charAt(i);
+    }
+
+    private void append(byte b) {
+        ensureCapacity(length + 1);
+        buffer[length++] = b;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+    }
+}
@@ -0,0 +1,39 @@
+package searchengine.services.indexing.impl.persistence.batch;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public final class WriteResult {
+    private static final WriteResult SUCCESS = new WriteResult(List.of());
+
+    private final List<RowRange> failedRanges;
+
+    public WriteResult(List<RowRange> failedRanges) {
+        this.failedRanges = List.copyOf(failedRanges);
+    }
+
+    public static WriteResult success() {
+        return SUCCESS;
+    }
+
+    public static WriteResult failed(int rows) {
+        return new WriteResult(List.of(new RowRange(0, rows)));
+    }
+
+    public boolean isSuccess() {
+        return failedRanges.isEmpty();
+    }
+
+    public int failedRows() {
+        return failedRanges.stream().mapToInt(RowRange::size).sum();
+    }
+
+    public boolean isFailed(int row) {
+        for (RowRange range : failedRanges) {
+            if (range.contains(row)) return true;
+        }
+        return false;
+    }
+}
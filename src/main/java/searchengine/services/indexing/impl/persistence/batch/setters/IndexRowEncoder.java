@@ -0,0 +1,15 @@
+package searchengine.services.indexing.impl.persistence.batch.setters;
+
+import searchengine.services.indexing.impl.persistence.PendingBatch;
+import searchengine.services.indexing.impl.persistence.batch.RowEncoder;
+import searchengine.services.indexing.impl.persistence.batch.TsvRowWriter;
+
+public final class IndexRowEncoder implements RowEncoder<PendingBatch> {
+
+    @Override
+    public void encode(TsvRowWriter writer, PendingBatch batch, int row) {
+        writer.writeLong(batch.getPageIds()[row])
+                .writeLong(batch.lemmaAt(row).getId())
+                .writeFloat(batch.getRanks()[row]);
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.services.indexing.impl.persistence.batch.setters;
+
+import searchengine.model.Lemma;
+import searchengine.services.indexing.impl.persistence.batch.RowEncoder;
+import searchengine.services.indexing.impl.persistence.batch.TsvRowWriter;
+
+import java.util.List;
+
+public final class LemmaRowEncoder implements RowEncoder<List<Lemma>> {
+
+    @Override
+    public void encode(TsvRowWriter writer, List<Lemma> lemmas, int row) {
+        Lemma lemma = lemmas.get(row);
+        writer.writeString(lemma.getLemma())
+                .writeLong(lemma.getSiteId().getId())
+                .writeLong(lemma.getFrequency());
+    }
+}
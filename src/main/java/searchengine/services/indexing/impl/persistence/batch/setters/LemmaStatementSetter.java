@@ -14,9 +14,4 @@ public final class LemmaStatementSetter implements BatchPreparedStatementSetter<
         ps.setLong(2, lemma.getSiteId().getId());
         ps.setLong(3, lemma.getFrequency());
     }
-
-    @Override
-    public void setGeneratedId(Lemma lemma, long id) {
-        lemma.setId((int) id);
-    }
-}
\ No newline at end of file
+}
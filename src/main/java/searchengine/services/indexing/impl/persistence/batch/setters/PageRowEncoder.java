@@ -0,0 +1,25 @@
+package searchengine.services.indexing.impl.persistence.batch.setters;
+
+import searchengine.model.Page;
+import searchengine.services.indexing.impl.persistence.batch.RowEncoder;
+import searchengine.services.indexing.impl.persistence.batch.TsvRowWriter;
+
+import java.util.List;
+
+public final class PageRowEncoder implements RowEncoder<List<Page>> {
+
+    @Override
+    public void encode(TsvRowWriter writer, List<Page> pages, int row) {
+        Page page = pages.get(row);
+        writer.writeLong(page.getId())
+                .writeString(page.getPath())
+                .writeLong(page.getSiteId().getId())
+                .writeLong(page.getCode())
+                .writeHex(page.getContent().getEncoded())
+                .writeString(page.getTitle())
+                .writeString(page.getPlainText())
+                .writeString(page.getContentHash())
+                .writeString(page.getEtag())
+                .writeString(page.getLastModified());
+    }
+}
@@ -10,14 +10,15 @@ public final class PageStatementSetter implements BatchPreparedStatementSetter<P
 
     @Override
     public void setValues(PreparedStatement ps, Page page) throws SQLException {
-        ps.setString(1, page.getPath());
-        ps.setLong(2, page.getSiteId().getId());
-        ps.setLong(3, page.getCode());
-        ps.setString(4, page.getContent());
-    }
-
-    @Override
-    public void setGeneratedId(Page page, long id) {
-        page.setId((int) id);
+        ps.setLong(1, page.getId());
+        ps.setString(2, page.getPath());
+        ps.setLong(3, page.getSiteId().getId());
+        ps.setLong(4, page.getCode());
+        ps.setBytes(5, page.getContent().getEncoded());
+        ps.setString(6, page.getTitle());
+        ps.setString(7, page.getPlainText());
+        ps.setString(8, page.getContentHash());
+        ps.setString(9, page.getEtag());
+        ps.setString(10, page.getLastModified());
     }
 }
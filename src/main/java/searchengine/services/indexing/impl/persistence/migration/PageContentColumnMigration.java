@@ -0,0 +1,51 @@
+package searchengine.services.indexing.impl.persistence.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public final class PageContentColumnMigration {
+    private static final String COLUMN_TYPE_SQL = """
+            SELECT DATA_TYPE FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'page' AND COLUMN_NAME = 'content'
+            """;
+    private static final String ALTER_SQL = "ALTER TABLE page MODIFY content LONGBLOB NOT NULL";
+    private static final String TARGET_TYPE = "longblob";
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    public void migrate() {
+        try (Connection connection = dataSource.getConnection()) {
+            String columnType = getColumnType(connection);
+            if (columnType == null || TARGET_TYPE.equalsIgnoreCase(columnType)) return;
+
+            log.info("Converting page.content from {} to {}.", columnType, TARGET_TYPE);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(ALTER_SQL);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error during the page content column migration: {}", e.getMessage(), e);
+        }
+    }
+
+    private String getColumnType(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(COLUMN_TYPE_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package searchengine.services.indexing.impl.persistence.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import searchengine.dto.indexing.StoredPageContent;
+import searchengine.model.content.PageContent;
+import searchengine.repository.PageRepository;
+import searchengine.services.indexing.impl.persistence.utils.PageTextExtractor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public final class PlainTextBackfillJob {
+    private static final int BATCH_SIZE = 100;
+
+    private final PageRepository pageRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        CompletableFuture.runAsync(this::backfill);
+    }
+
+    private void backfill() {
+        int updated = 0;
+        int failed = 0;
+        long lastId = 0;
+
+        try {
+            List<StoredPageContent> pages = pageRepository.findContentWithoutPlainText(lastId, BATCH_SIZE);
+            while (!pages.isEmpty()) {
+                for (StoredPageContent page : pages) {
+                    if (extractPlainText(page)) {
+                        updated++;
+                    } else {
+                        failed++;
+                    }
+                    lastId = page.getId();
+                }
+                pages = pageRepository.findContentWithoutPlainText(lastId, BATCH_SIZE);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while backfilling the page plain text: {}", String.valueOf(e));
+        }
+
+        if (updated > 0) log.info("Plain text was extracted for {} stored pages.", updated);
+        if (failed > 0) log.warn("Plain text could not be extracted for {} stored pages.", failed);
+    }
+
+    private boolean extractPlainText(StoredPageContent page) {
+        try {
+            if (page.getContent() == null) throw new IllegalStateException("The page has no content");
+
+            Document cleaned = PageTextExtractor.clean(new PageContent(page.getContent()).getHtml());
+            pageRepository.updatePlainText(page.getId(), cleaned.title(), cleaned.text());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to extract the plain text of page {}: {}", page.getId(), String.valueOf(e));
+            markFailed(page.getId());
+            return false;
+        }
+    }
+
+    private void markFailed(long pageId) {
+        try {
+            pageRepository.markPlainTextFailed(pageId);
+        } catch (RuntimeException e) {
+            log.error("Failed to mark page {} as processed: {}", pageId, String.valueOf(e));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package searchengine.services.indexing.impl.persistence.utils;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import searchengine.config.BulkLoadConfig;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public final class IdAllocator {
+    public static final String PAGE = "page";
+
+    private static final String CREATE_SQL = """
+            CREATE TABLE IF NOT EXISTS id_sequence (
+                name VARCHAR(64) NOT NULL PRIMARY KEY,
+                next_id BIGINT NOT NULL
+            )
+            """;
+    private static final String SEED_SQL = "INSERT IGNORE INTO id_sequence (name, next_id) VALUES (?, 1)";
+    private static final String RESERVE_SQL = """
+            UPDATE id_sequence
+            SET next_id = LAST_INSERT_ID(GREATEST(next_id, (SELECT COALESCE(MAX(id), 0) + 1 FROM %s)) + ?)
+            WHERE name = ?
+            """;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final DataSource dataSource;
+    private final BulkLoadConfig config;
+
+    public IdAllocator(DataSource dataSource, BulkLoadConfig config) {
+        this.dataSource = dataSource;
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void createSequences() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             PreparedStatement ps = connection.prepareStatement(SEED_SQL)) {
+            statement.executeUpdate(CREATE_SQL);
+            ps.setString(1, PAGE);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            log.error("SQL error while creating id sequences: {}", e.getMessage(), e);
+        }
+    }
+
+    public long nextId(String table) {
+        return blocks.computeIfAbsent(table, Block::new).next();
+    }
+
+    public void reset() {
+        blocks.clear();
+    }
+
+    private long reserve(String table, int size) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(RESERVE_SQL.formatted(table))) {
+            ps.setInt(1, size);
+            ps.setString(2, table);
+            if (ps.executeUpdate() == 0) throw new IllegalStateException("No id sequence for table " + table);
+
+            return ps.unwrap(JdbcStatement.class).getLastInsertID() - size;
+        } catch (SQLException e) {
+            log.error("SQL error while reserving ids for {}: {}", table, e.getMessage(), e);
+            throw new IllegalStateException("Failed to reserve ids for table " + table, e);
+        }
+    }
+
+    private final class Block {
+        private final String table;
+        private long next;
+        private long limit;
+
+        private Block(String table) {
+            this.table = table;
+        }
+
+        private synchronized long next() {
+            if (next == limit) {
+                int size = Math.max(1, config.getIdBlockSize());
+                next = reserve(table, size);
+                limit = next + size;
+                log.debug("Reserved {} ids of {} starting at {}", size, table, next);
+            }
+            return next++;
+        }
+    }
+}
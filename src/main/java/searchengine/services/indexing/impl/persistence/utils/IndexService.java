@@ -3,77 +3,42 @@ package searchengine.services.indexing.impl.persistence.utils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import searchengine.model.Index;
-import searchengine.model.Lemma;
-import searchengine.model.Page;
 import searchengine.repository.IndexRepository;
+import searchengine.services.indexing.impl.persistence.PendingBatch;
 import searchengine.services.indexing.impl.persistence.batch.BatchInserter;
-import searchengine.services.indexing.impl.persistence.batch.setters.IndexStatementSetter;
-
-import javax.sql.DataSource;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import searchengine.services.indexing.impl.persistence.batch.WriteResult;
+import searchengine.services.indexing.impl.persistence.batch.setters.IndexRowEncoder;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public final class IndexService {
-    private static final List<Index> INDEX_BUFFER = Collections.synchronizedList(new ArrayList<>());
-    private static final int BATCH_SIZE_FOR_INDEX = 1000;
+    private static final String INSERT_INDEX_SQL = "INSERT INTO `index` (page_id, lemma_id,`rank`) VALUES (?, ?, ?)";
+    private static final String LOAD_INDEX_SQL =
+            "LOAD DATA LOCAL INFILE 'index.tsv' INTO TABLE `index` CHARACTER SET utf8mb4 (page_id, lemma_id, `rank`)";
 
     private final IndexRepository indexRepository;
-    private final DataSource dataSource;
+    private final BatchInserter batchInserter;
 
-    public void save(Page page, Lemma lemma, float count) {
-        indexRepository.insertIndex(page, lemma, count);
-    }
+    public WriteResult insertPostings(PendingBatch batch) {
+        log.info("Create batch insert for {} index rows", batch.size());
 
-    public void updateLemmaIdInIndex(Map<Lemma, Lemma> oldToNewLemmaMap) {
-        for (Index index : INDEX_BUFFER) {
-            Lemma oldLemma = index.getLemmaId();
-            Lemma newLemma = oldToNewLemmaMap.get(oldLemma);
-            if (newLemma != null && oldLemma != newLemma) {
-                index.setLemmaId(newLemma);
-            }
+        if (batchInserter.isLoadDataEnabled()) {
+            return batchInserter.loadRows(batch, batch.size(), LOAD_INDEX_SQL, new IndexRowEncoder());
         }
-    }
-
-    public void createBatchInsertForIndex(AtomicBoolean stopRequested) {
-        log.info("Create batch insert for index");
-        String indexSql = "INSERT INTO `index` (page_id, lemma_id,`rank`) VALUES (?, ?, ?)";
-        BatchInserter inserter = new BatchInserter();
-        IndexStatementSetter setter = new IndexStatementSetter();
-
-        inserter.batchInsert(
-                INDEX_BUFFER,
-                indexSql,
-                setter,
-                dataSource,
-                BATCH_SIZE_FOR_INDEX,
-                stopRequested
-        );
-    }
-
-    public void addIndex(Page page, Lemma lemma, float count) {
-        INDEX_BUFFER.add(Index.builder()
-                .pageId(page)
-                .lemmaId(lemma)
-                .rank(count)
-                .build());
-    }
 
-    public void deleteIndex(Lemma lemma) {
-        indexRepository.deleteByLemmaId(lemma);
+        return batchInserter.insertRows(batch.size(), INSERT_INDEX_SQL, (ps, row) -> {
+            ps.setLong(1, batch.getPageIds()[row]);
+            ps.setLong(2, batch.lemmaAt(row).getId());
+            ps.setFloat(3, batch.getRanks()[row]);
+        });
     }
 
     public void deleteAll() {
         indexRepository.deleteAll();
     }
 
-    public void clearBuffer() {
-        INDEX_BUFFER.clear();
+    public void deleteForPagesAfter(long siteId, long pageId) {
+        indexRepository.deleteBySiteAndPageIdAfter(siteId, pageId);
     }
 }
\ No newline at end of file
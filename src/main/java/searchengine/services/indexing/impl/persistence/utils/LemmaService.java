@@ -3,52 +3,60 @@ package searchengine.services.indexing.impl.persistence.utils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import searchengine.config.BulkLoadConfig;
 import searchengine.model.Lemma;
 import searchengine.model.Site;
 import searchengine.repository.LemmaRepository;
 import searchengine.services.indexing.impl.persistence.batch.BatchInserter;
+import searchengine.services.indexing.impl.persistence.batch.setters.LemmaRowEncoder;
 import searchengine.services.indexing.impl.persistence.batch.setters.LemmaStatementSetter;
 
-import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public final class LemmaService {
-    private static final List<Lemma> LEMMA_BUFFER = Collections.synchronizedList(new ArrayList<>());
     private static final int BATCH_SIZE_FOR_LEMMA = 1000;
+    private static final String UPSERT_LEMMA_SQL = """
+            INSERT INTO lemma (lemma, site_id, frequency) VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)
+            """;
+    private static final String DECREMENT_LEMMA_SQL = "UPDATE lemma SET frequency = frequency - ? WHERE id = ?";
+
+    private static final String CREATE_STAGE_SQL =
+            "CREATE TEMPORARY TABLE IF NOT EXISTS lemma_stage SELECT lemma, site_id, frequency FROM lemma WHERE 1 = 0";
+    private static final String LOAD_STAGE_SQL =
+            "LOAD DATA LOCAL INFILE 'lemma.tsv' INTO TABLE lemma_stage CHARACTER SET utf8mb4 (lemma, site_id, frequency)";
+    private static final String UPSERT_FROM_STAGE_SQL = """
+            INSERT INTO lemma (lemma, site_id, frequency)
+            SELECT s.lemma, s.site_id, s.frequency FROM lemma_stage s
+            ON DUPLICATE KEY UPDATE frequency = lemma.frequency + VALUES(frequency)
+            """;
 
     private final LemmaRepository lemmaRepository;
-    private final DataSource dataSource;
-
-    public void saveAll(List<Lemma> lemmasToUpdate) {
-        lemmaRepository.saveAll(lemmasToUpdate);
-    }
-
-    public Lemma saveOrUpdate(Site site, String lemmaText) {
-        lemmaRepository.insertOrUpdateLemma(lemmaText, site.getId());
-        return lemmaRepository.findBySiteIdAndLemma(site, lemmaText);
-    }
-
-    public List<Lemma> findLemmas(Set<String> lemmas) {
-        return lemmaRepository.findByLemmaIn(lemmas);
-    }
+    private final BulkLoadConfig bulkLoadConfig;
 
     public void deleteAll() {
         lemmaRepository.deleteAll();
     }
 
-    public Lemma addLemma(Site site, String lemmaText, int frequency) {
-        Lemma lemma = buildLemma(site, lemmaText, frequency);
-        LEMMA_BUFFER.add(lemma);
+    public void deleteBySite(long siteId) {
+        lemmaRepository.deleteBySite(siteId);
+    }
 
-        return lemma;
+    public void recountFrequencies(long siteId) {
+        lemmaRepository.recountFrequencies(siteId);
+        lemmaRepository.deleteUnusedBySite(siteId);
     }
 
-    private Lemma buildLemma(Site site, String lemmaText, int frequency) {
+    public Lemma buildLemma(Site site, String lemmaText, int frequency) {
         return Lemma.builder()
                 .lemma(lemmaText)
                 .siteId(site)
@@ -56,48 +64,59 @@ public final class LemmaService {
                 .build();
     }
 
-    public void createBatchInsertForLemma(AtomicBoolean stopRequested) {
-        log.info("Create batch insert for lemma");
-        String lemmaSql = "INSERT INTO lemma (lemma, site_id, frequency) VALUES (?, ?, ?)";
-        BatchInserter inserter = new BatchInserter();
-        LemmaStatementSetter setter = new LemmaStatementSetter();
-
-        inserter.batchInsert(
-                LEMMA_BUFFER,
-                lemmaSql,
-                setter,
-                dataSource,
-                BATCH_SIZE_FOR_LEMMA,
-                stopRequested
-        );
-    }
-
-    public Map<Lemma, Lemma> updatingTheDuplicateKey() {
-        Map<Lemma, Long> grouped = LEMMA_BUFFER.stream()
-                .collect(Collectors.groupingBy(
-                        lemma -> buildLemma(lemma.getSiteId(), lemma.getLemma(), 0),
-                        Collectors.counting()
-                ));
-
-        Map<Lemma, Lemma> oldToNewLemmaMap = new HashMap<>();
-
-        for (Lemma original : LEMMA_BUFFER) {
-            Lemma key = buildLemma(original.getSiteId(), original.getLemma(), 0);
-            long frequency = grouped.get(key);
-            oldToNewLemmaMap.put(original, buildLemma(original.getSiteId(), original.getLemma(), (int) frequency));
+    public void upsertLemmas(Connection connection, List<Lemma> lemmas) throws SQLException {
+        log.info("Upsert {} lemmas", lemmas.size());
+        if (bulkLoadConfig.getMode() == BulkLoadConfig.Mode.LOAD_DATA) {
+            upsertThroughStage(connection, lemmas);
+        } else {
+            BatchInserter.executeBatches(connection, lemmas, UPSERT_LEMMA_SQL,
+                    new LemmaStatementSetter(), BATCH_SIZE_FOR_LEMMA);
         }
 
-        LEMMA_BUFFER.clear();
-        LEMMA_BUFFER.addAll(oldToNewLemmaMap.values());
+        Map<Long, List<Lemma>> lemmasBySite = lemmas.stream()
+                .collect(Collectors.groupingBy(lemma -> lemma.getSiteId().getId()));
+        for (Map.Entry<Long, List<Lemma>> entry : lemmasBySite.entrySet()) {
+            List<Lemma> siteLemmas = entry.getValue();
+            for (int from = 0; from < siteLemmas.size(); from += BATCH_SIZE_FOR_LEMMA) {
+                List<Lemma> chunk = siteLemmas.subList(from, Math.min(siteLemmas.size(), from + BATCH_SIZE_FOR_LEMMA));
+                resolveIds(connection, entry.getKey(), chunk);
+            }
+        }
+    }
 
-        return oldToNewLemmaMap;
+    public void decrementFrequencies(Connection connection, Map<Long, Integer> counts) throws SQLException {
+        BatchInserter.executeBatches(connection, new ArrayList<>(counts.entrySet()), DECREMENT_LEMMA_SQL,
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                }, BATCH_SIZE_FOR_LEMMA);
     }
 
-    public void deleteAllFromList(List<Lemma> lemmasToDelete) {
-        lemmaRepository.deleteAll(lemmasToDelete);
+    private void upsertThroughStage(Connection connection, List<Lemma> lemmas) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGE_SQL);
+            statement.executeUpdate("DELETE FROM lemma_stage");
+            BatchInserter.loadData(connection, LOAD_STAGE_SQL, lemmas, new LemmaRowEncoder(), 0, lemmas.size());
+            statement.executeUpdate(UPSERT_FROM_STAGE_SQL);
+        }
     }
 
-    public void clearBuffer() {
-        LEMMA_BUFFER.clear();
+    private void resolveIds(Connection connection, long siteId, List<Lemma> chunk) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        String sql = "SELECT id, lemma FROM lemma WHERE site_id = ? AND lemma IN (" + placeholders + ")";
+        Map<String, Lemma> byText = new HashMap<>();
+        chunk.forEach(lemma -> byText.put(lemma.getLemma(), lemma));
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, siteId);
+            for (int i = 0; i < chunk.size(); i++) ps.setString(i + 2, chunk.get(i).getLemma());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Lemma lemma = byText.get(rs.getString(2));
+                    if (lemma != null) lemma.setId(rs.getLong(1));
+                }
+            }
+        }
     }
 }
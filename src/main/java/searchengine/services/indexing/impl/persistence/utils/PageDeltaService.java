@@ -0,0 +1,126 @@
+package searchengine.services.indexing.impl.persistence.utils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import searchengine.model.Lemma;
+import searchengine.model.Page;
+import searchengine.model.Site;
+import searchengine.services.indexing.impl.persistence.batch.BatchInserter;
+import searchengine.services.indexing.impl.persistence.batch.PageReindexWriter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public final class PageDeltaService {
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPDATE_PAGE_SQL = """
+            UPDATE page SET code = ?, content = ?, title = ?, plain_text = ?, content_hash = ?, etag = ?,
+            last_modified = ? WHERE id = ?
+            """;
+    private static final String INDEXED_LEMMAS_SQL = """
+            SELECT i.lemma_id, l.lemma, i.`rank`
+            FROM `index` i JOIN lemma l ON l.id = i.lemma_id
+            WHERE i.page_id = ?
+            """;
+    private static final String UPDATE_RANK_SQL = "UPDATE `index` SET `rank` = ? WHERE page_id = ? AND lemma_id = ?";
+    private static final String INSERT_INDEX_SQL = "INSERT INTO `index` (page_id, lemma_id, `rank`) VALUES (?, ?, ?)";
+    private static final String DELETE_INDEX_SQL = "DELETE FROM `index` WHERE page_id = %d AND lemma_id IN (%%s)";
+    private static final String DELETE_UNUSED_LEMMAS_SQL = "DELETE FROM lemma WHERE id IN (%s) AND frequency <= 0";
+
+    private final LemmaService lemmaService;
+    private final DataSource dataSource;
+
+    public boolean updatePage(Site site, long pageId, Page changed, Map<String, Integer> lemmaRanks) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                if (updatePageRow(connection, pageId, changed)) applyLemmaDelta(connection, site, pageId, lemmaRanks);
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while updating page {}: {}", pageId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private boolean updatePageRow(Connection connection, long pageId, Page changed) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(UPDATE_PAGE_SQL)) {
+            ps.setLong(1, changed.getCode());
+            ps.setBytes(2, changed.getContent().getEncoded());
+            ps.setString(3, changed.getTitle());
+            ps.setString(4, changed.getPlainText());
+            ps.setString(5, changed.getContentHash());
+            ps.setString(6, changed.getEtag());
+            ps.setString(7, changed.getLastModified());
+            ps.setLong(8, pageId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private void applyLemmaDelta(Connection connection, Site site, long pageId,
+                                 Map<String, Integer> lemmaRanks) throws SQLException {
+        List<Long> removedLemmaIds = new ArrayList<>();
+        List<Map.Entry<Long, Integer>> changedRanks = new ArrayList<>();
+        Map<String, Integer> addedLemmas = new HashMap<>(lemmaRanks);
+
+        try (PreparedStatement ps = connection.prepareStatement(INDEXED_LEMMAS_SQL)) {
+            ps.setLong(1, pageId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long lemmaId = rs.getLong(1);
+                    Integer rank = addedLemmas.remove(rs.getString(2));
+                    if (rank == null) {
+                        removedLemmaIds.add(lemmaId);
+                    } else if (rank.floatValue() != rs.getFloat(3)) {
+                        changedRanks.add(Map.entry(lemmaId, rank));
+                    }
+                }
+            }
+        }
+
+        if (!removedLemmaIds.isEmpty()) {
+            PageReindexWriter.executeForIds(connection, DELETE_INDEX_SQL.formatted(pageId), removedLemmaIds);
+            Map<Long, Integer> decrements = new HashMap<>();
+            removedLemmaIds.forEach(lemmaId -> decrements.put(lemmaId, 1));
+            lemmaService.decrementFrequencies(connection, decrements);
+            PageReindexWriter.executeForIds(connection, DELETE_UNUSED_LEMMAS_SQL, removedLemmaIds);
+        }
+
+        BatchInserter.executeBatches(connection, changedRanks, UPDATE_RANK_SQL, (ps, entry) -> {
+            ps.setFloat(1, entry.getValue());
+            ps.setLong(2, pageId);
+            ps.setLong(3, entry.getKey());
+        }, BATCH_SIZE);
+
+        if (!addedLemmas.isEmpty()) {
+            List<Lemma> lemmas = new ArrayList<>();
+            addedLemmas.keySet().forEach(lemmaText -> lemmas.add(lemmaService.buildLemma(site, lemmaText, 1)));
+            lemmaService.upsertLemmas(connection, lemmas);
+
+            BatchInserter.executeBatches(connection, lemmas, INSERT_INDEX_SQL, (ps, lemma) -> {
+                ps.setLong(1, pageId);
+                ps.setLong(2, lemma.getId());
+                ps.setFloat(3, addedLemmas.get(lemma.getLemma()));
+            }, BATCH_SIZE);
+        }
+
+        log.debug("Page {} delta: {} lemmas removed, {} ranks changed, {} added",
+                pageId, removedLemmaIds.size(), changedRanks.size(), addedLemmas.size());
+    }
+}
@@ -1,25 +1,24 @@
 package searchengine.services.indexing.impl.persistence.utils;
 
 import lombok.RequiredArgsConstructor;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
+import searchengine.config.PageContentConfig;
+import searchengine.dto.indexing.PageMetadata;
 import searchengine.model.Page;
 import searchengine.model.Site;
+import searchengine.model.content.PageContent;
 import searchengine.repository.PageRepository;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public final class PageService {
     private final PageRepository pageRepository;
-
-    public Page save(Site site, String pageUrl, int statusCode, Document doc) {
-        Page page = buildPage(site, pageUrl, statusCode, doc);
-        return pageRepository.save(page);
-    }
-
-    public Page getPage(String path) {
-        return pageRepository.findByPath(path);
-    }
+    private final PageContentConfig pageContentConfig;
 
     public void deleteById(Long pageId) {
         pageRepository.deleteById(pageId);
@@ -29,12 +28,43 @@ public final class PageService {
         pageRepository.deleteAll();
     }
 
+    public long findMaxId(long siteId) {
+        return pageRepository.findMaxIdBySite(siteId);
+    }
+
+    public void deletePagesAfter(long siteId, long pageId) {
+        pageRepository.deleteBySiteAndIdAfter(siteId, pageId);
+    }
+
     public Page buildPage(Site site, String pageUrl, int statusCode, Document doc) {
+        Document cleaned = PageTextExtractor.clean(doc);
+        String plainText = cleaned.text();
+        Connection.Response response = (doc.connection() != null) ? doc.connection().response() : null;
+
         return Page.builder()
                 .siteId(site)
                 .path(UrlUtils.extractPath(pageUrl, site.getUrl()))
                 .code(statusCode)
-                .content(doc.html())
+                .content(PageContent.of(doc.html(), pageContentConfig.getCodec()))
+                .title(cleaned.title())
+                .plainText(plainText)
+                .contentHash(PageTextExtractor.hash(plainText))
+                .etag((response != null) ? response.header("ETag") : null)
+                .lastModified((response != null) ? response.header("Last-Modified") : null)
                 .build();
     }
+
+    public List<PageMetadata> getPageMetadata(long siteId) {
+        return pageRepository.findMetadataBySite(siteId);
+    }
+
+    public Document loadStoredDocument(long pageId, String pageUrl) {
+        return pageRepository.findById(pageId)
+                .map(page -> Jsoup.parse(page.getContent().getHtml(), pageUrl))
+                .orElseGet(() -> new Document(pageUrl));
+    }
+
+    public void updateValidators(long pageId, String etag, String lastModified) {
+        pageRepository.updateValidators(pageId, etag, lastModified);
+    }
 }
\ No newline at end of file
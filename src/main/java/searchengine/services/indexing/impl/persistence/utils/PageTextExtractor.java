@@ -0,0 +1,38 @@
+package searchengine.services.indexing.impl.persistence.utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class PageTextExtractor {
+    private static final String NON_CONTENT_ELEMENTS = "script, style, code, pre, noscript, " +
+            "iframe, object, embed, link, meta, nav, footer, " +
+            "aside, form, input, button, select, textarea, " +
+            "label, canvas, svg, figure, figcaption, picture, " +
+            "source";
+    private static final String HIDDEN_ELEMENTS = "[style~=(?i)display\\s*:\\s*none]";
+
+    public static Document clean(Document document) {
+        Document cleaned = document.clone();
+        cleaned.select(NON_CONTENT_ELEMENTS).remove();
+        cleaned.select(HIDDEN_ELEMENTS).remove();
+        return cleaned;
+    }
+
+    public static Document clean(String html) {
+        return clean(Jsoup.parse(html));
+    }
+
+    public static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -52,12 +52,24 @@ public final class SiteService {
                 .orElse(null);
     }
 
+    public Site findSiteForPage(String path) {
+        return getSiteOnPagePath(path).orElse(null);
+    }
+
     private Optional<Site> getSiteOnPagePath(String path) {
         return siteRepository.findAll().stream()
                 .filter(site -> path.startsWith(site.getUrl()))
                 .findFirst();
     }
 
+    public Site findByUrl(SiteFromList siteFromList) {
+        return siteRepository.findSiteByUrl(UrlUtils.normalizeSiteUrl(siteFromList.getUrl()));
+    }
+
+    public void delete(Site site) {
+        siteRepository.delete(site);
+    }
+
     public void deleteAll() {
         siteRepository.deleteAll();
     }
@@ -2,12 +2,12 @@ package searchengine.services.search.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
+import searchengine.dto.search.PageRelevance;
+import searchengine.dto.search.PageSummary;
 import searchengine.dto.search.SearchResponse;
 import searchengine.dto.search.SearchResult;
-import searchengine.model.Page;
 import searchengine.model.Site;
 import searchengine.model.enums.Status;
 import searchengine.repository.IndexRepository;
@@ -15,8 +15,12 @@ import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
 import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
+import searchengine.services.indexing.impl.persistence.utils.PageTextExtractor;
 import searchengine.services.indexing.impl.persistence.utils.UrlUtils;
 import searchengine.services.search.SearchService;
+import searchengine.services.search.impl.engine.InvertedIndex;
+import searchengine.services.search.impl.engine.RankedPages;
 import searchengine.services.search.impl.utils.LemmaFrequency;
 import searchengine.services.search.impl.utils.SnippetService;
 
@@ -35,6 +39,8 @@ public class SearchServiceImpl implements SearchService {
     private final PageRepository pageRepository;
     private final SiteRepository siteRepository;
     private final SnippetService snippetService;
+    private final InvertedIndex invertedIndex;
+    private final MorphologyCache morphology;
 
     @Override
     public SearchResponse search(String query, String site, Integer offset, Integer limit) {
@@ -63,48 +69,51 @@ public class SearchServiceImpl implements SearchService {
         }
 
         lemmaFrequencyList.sort(Comparator.comparingInt(LemmaFrequency::getFrequency));
-        Set<Long> pageIds = getPageIds(lemmaFrequencyList, siteFromRequest);
+        RankedPages rankedPages = invertedIndex.isReady()
+                ? getRankedPagesFromIndex(lemmaFrequencyList, queryLemmasList, siteFromRequest)
+                : getRankedPagesFromDb(lemmaFrequencyList, queryLemmasList, siteFromRequest);
 
-        if(pageIds.isEmpty()) {
-            return new SearchResponse(true, 0, new ArrayList<>());
+        int totalCount = rankedPages.size();
+        if(offset >= totalCount) {
+            return new SearchResponse(true, totalCount, new ArrayList<>());
         }
 
-        Map<Long, Double> pageAbsRelevanceMap = getPageAbsRelevanceMap(pageIds, queryLemmasList, siteFromRequest);
-        double maxAbsRelevance = Collections.max(pageAbsRelevanceMap.values());
-
-        List<SearchResult> results = getSearchResultsList(pageAbsRelevanceMap, maxAbsRelevance, queryLemmasList);
-        results.sort((a, b) -> Double.compare(b.getRelevance(), a.getRelevance()));
-
-        int totalCount = results.size();
-        int fromIndex = Math.min(offset, totalCount);
-        int toIndex = Math.min(offset + limit, totalCount);
-
-        List<SearchResult> paginatedResults = results.subList(fromIndex, toIndex);
+        int resultsToSelect = (int) Math.min((long) offset + limit, totalCount);
+        List<SearchResult> paginatedResults = getSearchResultsList(rankedPages, resultsToSelect, offset, queryLemmasList);
 
         return new SearchResponse(true, totalCount, paginatedResults);
     }
 
-    private List<SearchResult> getSearchResultsList(Map<Long, Double> pageAbsRelevanceMap,
-                                                    double maxAbsRelevance, List<String> queryLemmasList) {
+    private List<SearchResult> getSearchResultsList(RankedPages rankedPages, int resultsToSelect,
+                                                    int offset, List<String> queryLemmasList) {
+        double maxAbsRelevance = rankedPages.maxScore();
+        int[] topPositions = rankedPages.top(resultsToSelect);
+
         List<SearchResult> results = new ArrayList<>();
-        for (Map.Entry<Long, Double> entry : pageAbsRelevanceMap.entrySet()) {
-            long pageId = entry.getKey();
-            double absRelevance = entry.getValue();
-            double relRelevance = absRelevance / maxAbsRelevance;
-            SearchResult searchResult = buildSearchResult(pageId, relRelevance, queryLemmasList);
+        for (int i = offset; i < topPositions.length; i++) {
+            long pageId = rankedPages.pageIdAt(topPositions[i]);
+            double relRelevance = rankedPages.scoreAt(topPositions[i]) / maxAbsRelevance;
 
-            results.add(searchResult);
+            results.add(buildSearchResult(pageId, relRelevance, queryLemmasList));
         }
 
         return results;
     }
 
     private SearchResult buildSearchResult(long pageId, double relRelevance, List<String> queryLemmasList) {
-        Page page = pageRepository.getPagesById(pageId);
-        Site siteFromDb = siteRepository.getSiteById(page.getSiteId().getId());
-        Document document = getDocument(page);
-        String title = document.title();
-        String snippet = snippetService.generateSnippet(document.text(), queryLemmasList);
+        PageSummary page = pageRepository.getPageSummaryById(pageId);
+        Site siteFromDb = siteRepository.getSiteById(page.getSiteId());
+        String title = page.getTitle();
+        String text = page.getPlainText();
+
+        if (text == null) {
+            String html = pageRepository.getPagesById(pageId).getContent().getHtml();
+            Document document = PageTextExtractor.clean(html);
+            title = document.title();
+            text = document.text();
+        }
+
+        String snippet = snippetService.generateSnippet(text, queryLemmasList);
 
         return SearchResult.builder()
                 .site(siteFromDb.getUrl())
@@ -136,70 +145,26 @@ public class SearchServiceImpl implements SearchService {
         return lemmaFrequencyList;
     }
 
-    private Map<Long, Double> getPageAbsRelevanceMap(Set<Long> pageIds, List<String> queryLemmasList,
-                                                     Site siteFromRequest) {
-        Map<Long, Double> pageAbsRelevanceMap = new HashMap<>();
-        for (Long pageId : pageIds) {
-            List<Double> ranksList = getRanksList(pageId, queryLemmasList, siteFromRequest);
-            double absRelevance = 0;
-
-            for (double rank : ranksList) {
-                absRelevance += rank;
-            }
-            pageAbsRelevanceMap.put(pageId, absRelevance);
-        }
+    private RankedPages getRankedPagesFromIndex(List<LemmaFrequency> lemmaFrequencyList,
+                                                List<String> queryLemmasList, Site siteFromRequest) {
+        List<String> rareLemmas = lemmaFrequencyList.stream().map(LemmaFrequency::getLemma).toList();
+        Long siteId = (siteFromRequest != null) ? siteFromRequest.getId() : null;
 
-        return pageAbsRelevanceMap;
+        return invertedIndex.rankPages(rareLemmas, queryLemmasList, siteId);
     }
 
-    private List<Double> getRanksList(long pageId, List<String> lemmas, Site siteFromRequest) {
-        List<Double> ranksList = new ArrayList<>();
+    private RankedPages getRankedPagesFromDb(List<LemmaFrequency> lemmaFrequencyList,
+                                             List<String> queryLemmasList, Site siteFromRequest) {
+        List<String> rareLemmas = lemmaFrequencyList.stream().map(LemmaFrequency::getLemma).toList();
+        List<PageRelevance> pageRelevanceList = (siteFromRequest != null)
+                ? indexRepository.getPageRelevanceOnSite(queryLemmasList, rareLemmas, rareLemmas.size(),
+                        siteFromRequest.getId())
+                : indexRepository.getPageRelevance(queryLemmasList, rareLemmas, rareLemmas.size());
 
-        for (String lemma : lemmas) {
-            long lemmaId;
-            Float rank;
-            Set<Long> lemmaIds;
-
-            if(siteFromRequest != null) {
-                lemmaId = lemmaRepository.findIdByLemmaAndSiteId(lemma, siteFromRequest.getId());
-                rank = indexRepository.getRankByLemmaIdAndPageId(pageId, lemmaId);
-            } else {
-                lemmaIds = lemmaRepository.findIdsByLemma(lemma);
-                rank = indexRepository.getTotalRankByPageIdAndLemmaIds(pageId, lemmaIds);
-            }
-
-            if(rank != null) {
-                ranksList.add(rank.doubleValue());
-            }
-        }
-
-        return ranksList;
-    }
+        RankedPages rankedPages = new RankedPages(pageRelevanceList.size());
+        pageRelevanceList.forEach(relevance -> rankedPages.add(relevance.getPageId(), relevance.getAbsRelevance()));
 
-    private Set<Long> getPageIds(List<LemmaFrequency> lemmaFrequencyList, Site siteFromRequest) {
-        Set<Long> pageIds = null;
-
-        for (LemmaFrequency lemmaFreq : lemmaFrequencyList) {
-            Set<Long> currentPageIds;
-
-            if(siteFromRequest != null) {
-                long lemmaId = lemmaRepository.findIdByLemmaAndSiteId(lemmaFreq.getLemma(), siteFromRequest.getId());
-                currentPageIds = indexRepository.getPageIdsByLemmaId(lemmaId);
-            } else {
-                Set<Long> lemmaIds = lemmaRepository.findAllIdsByLemma(lemmaFreq.getLemma());
-                currentPageIds = indexRepository.getPageIdsByLemmaIds(lemmaIds);
-            }
-
-            if(currentPageIds.isEmpty()) return new HashSet<>();
-            if(pageIds == null) {
-                pageIds = new HashSet<>(currentPageIds);
-            } else {
-                pageIds.retainAll(currentPageIds);
-                if(pageIds.isEmpty()) return new HashSet<>();
-            }
-        }
-
-        return pageIds;
+        return rankedPages;
     }
 
     private int getTotalPage(Site site) {
@@ -209,7 +174,7 @@ public class SearchServiceImpl implements SearchService {
     }
 
     private List<String> extractLemmas(String query) {
-        Lemmatizer<String> lemmatizer = new Lemmatizer<>(text -> text);
+        Lemmatizer<String> lemmatizer = new Lemmatizer<>(morphology, text -> text);
         return new ArrayList<>(lemmatizer.createLemmaMap(query).keySet());
     }
 
@@ -220,15 +185,4 @@ public class SearchServiceImpl implements SearchService {
 
         return (site != null && Status.INDEXED.equals(site.getStatus())) ? site : null;
     }
-
-    private Document getDocument(Page page) {
-        Document document = Jsoup.parse(page.getContent());
-        document.select("script, style, code, pre, noscript, " +
-                "iframe, object, embed, link, meta, nav, footer, " +
-                "aside, form, input, button, select, textarea, " +
-                "label, canvas, svg, figure, figcaption, picture, " +
-                "source").remove();
-        document.select("[style~=(?i)display\\s*:\\s*none]").remove();
-        return document;
-    }
 }
\ No newline at end of file
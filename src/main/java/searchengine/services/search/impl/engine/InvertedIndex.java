@@ -0,0 +1,337 @@
+package searchengine.services.search.impl.engine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import searchengine.model.Lemma;
+import searchengine.services.indexing.impl.persistence.PendingBatch;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public final class InvertedIndex {
+    private static final String LOAD_SQL = """
+            SELECT l.lemma, l.site_id, i.page_id, i.`rank`
+            FROM `index` i JOIN lemma l ON l.id = i.lemma_id
+            """;
+
+    private final Map<String, Map<Long, PostingList>> postings = new HashMap<>();
+    private final Map<Long, PageLemmas> pageLemmas = new HashMap<>();
+    private LemmaCodes lemmaCodes = new LemmaCodes();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private long version;
+
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        CompletableFuture.runAsync(this::loadFromDatabase);
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    private void loadFromDatabase() {
+        long startTime = System.currentTimeMillis();
+
+        while (!ready.get()) {
+            long loadVersion = currentVersion();
+            Map<String, Map<Long, PostingList>> loaded = new HashMap<>();
+            Map<Long, PageLemmas> loadedPages = new HashMap<>();
+            LemmaCodes loadedCodes = new LemmaCodes();
+            if (!readPostings(loaded, loadedPages, loadedCodes)) return;
+
+            loaded.values().forEach(sitePostings -> sitePostings.values().forEach(PostingList::sort));
+            if (install(loaded, loadedPages, loadedCodes, loadVersion)) {
+                log.info("The in-memory index was loaded in {} ms, lemmas: {}",
+                        System.currentTimeMillis() - startTime, loaded.size());
+            }
+        }
+    }
+
+    private boolean readPostings(Map<String, Map<Long, PostingList>> loaded, Map<Long, PageLemmas> loadedPages,
+                                 LemmaCodes loadedCodes) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(LOAD_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long siteId = rs.getLong(2);
+                    long pageId = rs.getLong(3);
+                    String lemma = addPageLemma(loadedPages, loadedCodes, siteId, pageId, rs.getString(1));
+                    getOrCreate(loaded, lemma, siteId).add(pageId, rs.getFloat(4));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while loading the in-memory index: {}", e.getMessage(), e);
+            return false;
+        }
+
+        return true;
+    }
+
+    private long currentVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean install(Map<String, Map<Long, PostingList>> loaded, Map<Long, PageLemmas> loadedPages,
+                            LemmaCodes loadedCodes, long loadVersion) {
+        lock.writeLock().lock();
+        try {
+            if (ready.get() || version != loadVersion) return false;
+
+            postings.clear();
+            postings.putAll(loaded);
+            pageLemmas.clear();
+            pageLemmas.putAll(loadedPages);
+            lemmaCodes = loadedCodes;
+            ready.set(true);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            pageLemmas.clear();
+            lemmaCodes = new LemmaCodes();
+            version++;
+            ready.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(PendingBatch batch) {
+        lock.writeLock().lock();
+        try {
+            Set<PostingList> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (int i = 0; i < batch.size(); i++) {
+                Lemma lemma = batch.lemmaAt(i);
+                if (lemma.getId() == 0) continue;
+
+                long siteId = lemma.getSiteId().getId();
+                long pageId = batch.getPageIds()[i];
+                String lemmaText = addPageLemma(pageLemmas, lemmaCodes, siteId, pageId, lemma.getLemma());
+                PostingList postingList = getOrCreate(postings, lemmaText, siteId);
+                postingList.add(pageId, batch.getRanks()[i]);
+                touched.add(postingList);
+            }
+
+            touched.forEach(PostingList::sort);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addPage(long siteId, long pageId, Map<String, Integer> lemmaRanks) {
+        lock.writeLock().lock();
+        try {
+            lemmaRanks.forEach((lemma, rank) -> {
+                String lemmaText = addPageLemma(pageLemmas, lemmaCodes, siteId, pageId, lemma);
+                getOrCreate(postings, lemmaText, siteId).insert(pageId, rank);
+            });
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePage(long siteId, long pageId) {
+        lock.writeLock().lock();
+        try {
+            PageLemmas page = pageLemmas.remove(pageId);
+            if (page != null) {
+                for (int i = 0; i < page.size; i++) removePosting(lemmaCodes.lemma(page.lemmas[i]), siteId, pageId);
+            }
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePagesAfter(long siteId, long pageId) {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(sitePostings -> {
+                PostingList postingList = sitePostings.get(siteId);
+                if (postingList != null && postingList.truncateAfter(pageId) && postingList.isEmpty()) {
+                    sitePostings.remove(siteId);
+                }
+            });
+            postings.values().removeIf(Map::isEmpty);
+            pageLemmas.entrySet().removeIf(entry -> entry.getValue().siteId == siteId && entry.getKey() > pageId);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeSite(long siteId) {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(sitePostings -> sitePostings.remove(siteId));
+            postings.values().removeIf(Map::isEmpty);
+            pageLemmas.values().removeIf(page -> page.siteId == siteId);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removePosting(String lemma, long siteId, long pageId) {
+        Map<Long, PostingList> sitePostings = postings.get(lemma);
+        if (sitePostings == null) return;
+
+        PostingList postingList = sitePostings.get(siteId);
+        if (postingList != null && postingList.remove(pageId) && postingList.isEmpty()) {
+            sitePostings.remove(siteId);
+            if (sitePostings.isEmpty()) postings.remove(lemma);
+        }
+    }
+
+    public RankedPages rankPages(List<String> rareLemmas, List<String> queryLemmas, Long siteId) {
+        RankedPages rankedPages = new RankedPages();
+        if (rareLemmas.isEmpty()) return rankedPages;
+
+        lock.readLock().lock();
+        try {
+            Map<Long, PostingList> firstLemmaPostings = postings.getOrDefault(rareLemmas.get(0), Map.of());
+            Collection<Long> siteIds = (siteId != null) ? List.of(siteId) : firstLemmaPostings.keySet();
+
+            for (long currentSiteId : siteIds) {
+                long[] candidates = intersect(rareLemmas, currentSiteId);
+                addAbsRelevance(rankedPages, candidates, queryLemmas, currentSiteId);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return rankedPages;
+    }
+
+    private long[] intersect(List<String> lemmas, long siteId) {
+        long[] candidates = null;
+        int count = 0;
+
+        for (String lemma : lemmas) {
+            PostingList postingList = getPostingList(lemma, siteId);
+            if (postingList == null) return new long[0];
+
+            if (candidates == null) {
+                candidates = new long[postingList.size()];
+                for (int i = 0; i < postingList.size(); i++) candidates[i] = postingList.pageIdAt(i);
+                count = candidates.length;
+                continue;
+            }
+
+            int retained = 0;
+            for (int i = 0; i < count; i++) {
+                if (postingList.indexOf(candidates[i]) >= 0) candidates[retained++] = candidates[i];
+            }
+            count = retained;
+            if (count == 0) return new long[0];
+        }
+
+        return (candidates == null) ? new long[0] : Arrays.copyOf(candidates, count);
+    }
+
+    private void addAbsRelevance(RankedPages rankedPages, long[] candidates,
+                                 List<String> queryLemmas, long siteId) {
+        if (candidates.length == 0) return;
+
+        double[] absRelevance = new double[candidates.length];
+        for (String lemma : queryLemmas) {
+            PostingList postingList = getPostingList(lemma, siteId);
+            if (postingList == null) continue;
+
+            for (int i = 0; i < candidates.length; i++) {
+                int position = postingList.indexOf(candidates[i]);
+                if (position >= 0) absRelevance[i] += postingList.rankAt(position);
+            }
+        }
+
+        for (int i = 0; i < candidates.length; i++) {
+            rankedPages.add(candidates[i], absRelevance[i]);
+        }
+    }
+
+    private PostingList getPostingList(String lemma, long siteId) {
+        Map<Long, PostingList> sitePostings = postings.get(lemma);
+        return (sitePostings == null) ? null : sitePostings.get(siteId);
+    }
+
+    private static String addPageLemma(Map<Long, PageLemmas> target, LemmaCodes codes,
+                                       long siteId, long pageId, String lemma) {
+        int code = codes.code(lemma);
+        target.computeIfAbsent(pageId, key -> new PageLemmas(siteId)).add(code);
+        return codes.lemma(code);
+    }
+
+    private static PostingList getOrCreate(Map<String, Map<Long, PostingList>> target, String lemma, long siteId) {
+        return target.computeIfAbsent(lemma, key -> new HashMap<>())
+                .computeIfAbsent(siteId, key -> new PostingList());
+    }
+
+    private static final class PageLemmas {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final long siteId;
+        private int[] lemmas = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private PageLemmas(long siteId) {
+            this.siteId = siteId;
+        }
+
+        private void add(int lemmaCode) {
+            if (size == lemmas.length) lemmas = Arrays.copyOf(lemmas, size << 1);
+            lemmas[size++] = lemmaCode;
+        }
+    }
+
+    private static final class LemmaCodes {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> lemmas = new ArrayList<>();
+
+        private int code(String lemma) {
+            Integer code = codes.get(lemma);
+            if (code != null) return code;
+
+            codes.put(lemma, lemmas.size());
+            lemmas.add(lemma);
+            return lemmas.size() - 1;
+        }
+
+        private String lemma(int code) {
+            return lemmas.get(code);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package searchengine.services.search.impl.engine;
+
+import java.util.Arrays;
+
+public final class PostingList {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] pageIds = new long[INITIAL_CAPACITY];
+    private float[] ranks = new float[INITIAL_CAPACITY];
+    private int size;
+    private boolean sorted = true;
+
+    public void add(long pageId, float rank) {
+        if (size == pageIds.length) grow();
+        if (size > 0 && pageIds[size - 1] >= pageId) sorted = false;
+
+        pageIds[size] = pageId;
+        ranks[size] = rank;
+        size++;
+    }
+
+    public void insert(long pageId, float rank) {
+        sort();
+        int position = indexOf(pageId);
+        if (position >= 0) {
+            ranks[position] = rank;
+            return;
+        }
+
+        position = -position - 1;
+        if (size == pageIds.length) grow();
+        System.arraycopy(pageIds, position, pageIds, position + 1, size - position);
+        System.arraycopy(ranks, position, ranks, position + 1, size - position);
+        pageIds[position] = pageId;
+        ranks[position] = rank;
+        size++;
+    }
+
+    public boolean remove(long pageId) {
+        int position = indexOf(pageId);
+        if (position < 0) return false;
+
+        int tail = size - position - 1;
+        System.arraycopy(pageIds, position + 1, pageIds, position, tail);
+        System.arraycopy(ranks, position + 1, ranks, position, tail);
+        size--;
+        return true;
+    }
+
+    public boolean truncateAfter(long pageId) {
+        sort();
+        int position = indexOf(pageId);
+        int retained = (position >= 0) ? position + 1 : -position - 1;
+        if (retained == size) return false;
+
+        size = retained;
+        return true;
+    }
+
+    public int indexOf(long pageId) {
+        return Arrays.binarySearch(pageIds, 0, size, pageId);
+    }
+
+    public long pageIdAt(int position) {
+        return pageIds[position];
+    }
+
+    public float rankAt(int position) {
+        return ranks[position];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void sort() {
+        if (sorted) return;
+
+        long[] sourceIds = pageIds;
+        float[] sourceRanks = ranks;
+        long[] targetIds = new long[pageIds.length];
+        float[] targetRanks = new float[ranks.length];
+
+        for (int width = 1; width < size; width <<= 1) {
+            for (int from = 0; from < size; from += width << 1) {
+                int middle = Math.min(from + width, size);
+                int to = Math.min(from + (width << 1), size);
+                merge(sourceIds, sourceRanks, targetIds, targetRanks, from, middle, to);
+            }
+
+            long[] ids = sourceIds;
+            sourceIds = targetIds;
+            targetIds = ids;
+            float[] rankValues = sourceRanks;
+            sourceRanks = targetRanks;
+            targetRanks = rankValues;
+        }
+
+        pageIds = sourceIds;
+        ranks = sourceRanks;
+        sorted = true;
+    }
+
+    private static void merge(long[] sourceIds, float[] sourceRanks, long[] targetIds, float[] targetRanks,
+                              int from, int middle, int to) {
+        int left = from;
+        int right = middle;
+        for (int out = from; out < to; out++) {
+            boolean takeLeft = right >= to || (left < middle && sourceIds[left] <= sourceIds[right]);
+            int source = takeLeft ? left++ : right++;
+            targetIds[out] = sourceIds[source];
+            targetRanks[out] = sourceRanks[source];
+        }
+    }
+
+    private void grow() {
+        int capacity = pageIds.length << 1;
+        pageIds = Arrays.copyOf(pageIds, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+    }
+}
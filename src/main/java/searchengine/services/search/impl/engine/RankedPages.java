@@ -0,0 +1,119 @@
+package searchengine.services.search.impl.engine;
+
+import java.util.Arrays;
+
+public final class RankedPages {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] pageIds;
+    private double[] scores;
+    private int size;
+
+    public RankedPages() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public RankedPages(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        pageIds = new long[capacity];
+        scores = new double[capacity];
+    }
+
+    public void add(long pageId, double score) {
+        if (size == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, size << 1);
+            scores = Arrays.copyOf(scores, size << 1);
+        }
+
+        pageIds[size] = pageId;
+        scores[size] = score;
+        size++;
+    }
+
+    public long pageIdAt(int position) {
+        return pageIds[position];
+    }
+
+    public double scoreAt(int position) {
+        return scores[position];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double maxScore() {
+        double max = 0;
+        for (int i = 0; i < size; i++) max = Math.max(max, scores[i]);
+        return max;
+    }
+
+    public int[] top(int count) {
+        int k = Math.min(count, size);
+        if (k <= 0) return new int[0];
+
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        for (int position = 0; position < size; position++) {
+            if (heapSize < k) {
+                heap[heapSize] = position;
+                siftUp(heap, heapSize++);
+            } else if (isBetter(position, heap[0])) {
+                heap[0] = position;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        int[] ordered = new int[k];
+        for (int i = k - 1; i >= 0; i--) {
+            ordered[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+
+        return ordered;
+    }
+
+    private boolean isBetter(int first, int second) {
+        int byScore = Double.compare(scores[first], scores[second]);
+        return byScore != 0 ? byScore > 0 : pageIds[first] < pageIds[second];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(heap[parent], heap[index])) return;
+
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+
+        while (true) {
+            int worst = index;
+            int left = (index << 1) + 1;
+            int right = left + 1;
+
+            if (left < heapSize && isBetter(heap[worst], heap[left])) worst = left;
+            if (right < heapSize && isBetter(heap[worst], heap[right])) worst = right;
+            if (worst == index) return;
+
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int first, int second) {
+        int temp = heap[first];
+        heap[first] = heap[second];
+        heap[second] = temp;
+    }
+}
@@ -2,72 +2,68 @@ package searchengine.services.search.impl.utils;
 
 import org.springframework.stereotype.Service;
 import searchengine.services.indexing.impl.morphology.Lemmatizer;
+import searchengine.services.indexing.impl.morphology.MorphologyCache;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 public class SnippetService {
-    private final Lemmatizer<String> lemmatizer = new Lemmatizer<>(text -> text);
-    private final static int GROUP_MAX_DISTANCE = 30;
     private final static int SNIPPET_LENGTH = 200;
+    private final Lemmatizer<String> lemmatizer;
 
-    public String generateSnippet(String content, List<String> queryLemmas) {
-        List<String> query = lemmatizer.findWordsWithQueryLemmas(content, queryLemmas);
-        String correctedContent = getCorrectedContent(content, query);
-
-        Pattern boldPattern = Pattern.compile("<b>(.*?)</b>");
-        Matcher matcher = boldPattern.matcher(correctedContent);
-
-        List<Integer> boldStartIndices = new ArrayList<>();
-        List<Integer> boldEndIndices = new ArrayList<>();
+    public SnippetService(MorphologyCache morphology) {
+        this.lemmatizer = new Lemmatizer<>(morphology, text -> text);
+    }
 
-        while(matcher.find()){
-            boldStartIndices.add(matcher.start());
-            boldEndIndices.add(matcher.end());
+    public String generateSnippet(String content, List<String> queryLemmas) {
+        int[] spans = lemmatizer.findQueryWordSpans(content, new HashSet<>(queryLemmas));
+        if (spans.length == 0) {
+            return content.substring(0, Math.min(SNIPPET_LENGTH, content.length())) + "...";
         }
 
-        return getSnippet(boldStartIndices, boldEndIndices,
-                content, correctedContent);
+        int firstSpan = findDensestWindow(spans);
+        return buildSnippet(content, spans, firstSpan);
     }
 
-    private String getSnippet(List<Integer> boldStartIndices, List<Integer> boldEndIndices,
-                              String content, String correctedContent) {
-        int index;
-        int groupStartIndex = -1;
+    private int findDensestWindow(int[] spans) {
+        int spanCount = spans.length / 2;
+        int bestSpan = 0;
+        int bestCount = 0;
+        int last = 0;
 
-        for (int i = 0; i < boldStartIndices.size() - 1; i++){
-            if(boldStartIndices.get(i+1) - boldEndIndices.get(i) <= GROUP_MAX_DISTANCE){
-                groupStartIndex = boldStartIndices.get(i);
-                break;
-            }
-        }
+        for (int first = 0; first < spanCount; first++) {
+            int windowEnd = spans[first * 2] + SNIPPET_LENGTH;
+            if (last < first) last = first;
+            while (last + 1 < spanCount && spans[(last + 1) * 2 + 1] <= windowEnd) last++;
 
-        if(groupStartIndex != -1) {
-            index = groupStartIndex;
-        } else if(!boldStartIndices.isEmpty()){
-            index = boldStartIndices.get(0);
-        } else {
-            return content.substring(0, Math.min(SNIPPET_LENGTH, content.length())) + "...";
+            int count = last - first + 1;
+            if (count > bestCount) {
+                bestCount = count;
+                bestSpan = first;
+            }
         }
 
-        int start = Math.max(0, index);
-        int end = Math.min(correctedContent.length(), start + SNIPPET_LENGTH);
-        String snippet = correctedContent.substring(start, end);
-
-        return snippet + "...";
+        return bestSpan;
     }
 
-    private String getCorrectedContent(String content, List<String> query) {
-        String correctedContent = content;
-        for (String word : query) {
-            String pattern = "\\b" + Pattern.quote(word) + "\\b";
-            correctedContent = Pattern.compile(pattern)
-                    .matcher(correctedContent)
-                    .replaceAll("<b>" + word + "</b>");
+    private String buildSnippet(String content, int[] spans, int firstSpan) {
+        int start = spans[firstSpan * 2];
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        StringBuilder snippet = new StringBuilder(SNIPPET_LENGTH + 64);
+        int cursor = start;
+
+        for (int i = firstSpan * 2; i < spans.length && spans[i] < end; i += 2) {
+            int spanEnd = spans[i + 1];
+            snippet.append(content, cursor, spans[i])
+                    .append("<b>")
+                    .append(content, spans[i], spanEnd)
+                    .append("</b>");
+            cursor = spanEnd;
+            end = Math.max(end, spanEnd);
         }
-        return correctedContent;
+
+        snippet.append(content, cursor, end);
+        return snippet.append("...").toString();
     }
 }